@@ -6,13 +6,16 @@ package org.sikuli.basics;
 import org.sikuli.script.SX;
 import org.sikuli.script.support.Commons;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
 import java.lang.reflect.Method;
 import java.text.DateFormat;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Debug is a utility class that wraps println statements and allows more or less command line
@@ -79,6 +82,7 @@ public class Debug {
   static File IDE_START_LOG_FILE = null;
 
   public static String getIdeStartLog() {
+    flush();
     if (IDE_START_LOG_FILE == null & !isIDEstarting()) {
       IDE_START_LOG_FILE = new File(Commons.getAppDataStore(), "SikulixIDEstartlog.txt");
       boolean success = !IDE_START_LOG.isEmpty();
@@ -103,7 +107,7 @@ public class Debug {
   }
 
   public static void runShutDown() {
-    //TODO DEBUG shutdown
+    flush();
   }
 
   public static long timeNow() {
@@ -466,7 +470,8 @@ public class Debug {
     }
     fileName = fLog.getAbsolutePath();
     try {
-      PrintStream printoutNew = new PrintStream(fLog);
+      PrintStream printoutNew = new PrintStream(new BufferedOutputStream(new FileOutputStream(fLog)));
+      flush();
       if (printout != null) {
         printout.close();
       }
@@ -510,7 +515,8 @@ public class Debug {
     }
     fileName = fLog.getAbsolutePath();
     try {
-      PrintStream printoutuserNew = new PrintStream(fLog);
+      PrintStream printoutuserNew = new PrintStream(new BufferedOutputStream(new FileOutputStream(fLog)));
+      flush();
       if (printoutuser != null) {
         printoutuser.close();
       }
@@ -597,7 +603,7 @@ public class Debug {
       if (Settings.UserLogTime) {
 //TODO replace the hack -99 to filter user logs
         log(-99, String.format("%s (%s)",
-            Settings.UserLogPrefix, df.format(new Date())), message, args);
+            Settings.UserLogPrefix, formatTime(System.currentTimeMillis())), message, args);
       } else {
         log(-99, String.format("%s", Settings.UserLogPrefix), message, args);
       }
@@ -718,53 +724,241 @@ public class Debug {
     return out;
   }
 
-  private static synchronized void log(int level, String prefix, String message, Object... args) {
+  private static String formatTime(long time) {
+    synchronized (df) {
+      return df.format(new Date(time));
+    }
+  }
+
+  private static void log(int level, String prefix, String message, Object... args) {
 //TODO replace the hack -99 to filter user logs
     if (isQuiet()) { //TODO
       return;
     }
+    if (level > DEBUG_LEVEL) {
+      return;
+    }
+    long time = System.currentTimeMillis();
+    if (level > 0 && Settings.LogAsync && buffer != null && privateLogger == null && !isIDEstarting()) {
+      int added = buffer.offer(new LogBuffer.Line(level, prefix, message, snapshot(args), time));
+      if (added >= 0) {
+        if (added > 0) {
+          wakeWriter();
+        }
+        return;
+      }
+    }
+    synchronized (Debug.class) {
+      drain();
+      write(level, prefix, message, args, time);
+      flushFiles();
+    }
+  }
+
+  private static void write(int level, String prefix, String message, Object[] args, long time) {
     String sout = "";
     String stime = "";
-    if (level <= DEBUG_LEVEL) {
-      if (Settings.LogTime && level != -99) {
-        stime = String.format(" (%s)", df.format(new Date()));
-      }
-      if (!prefix.isEmpty()) {
-        prefix = "[" + prefix + stime + "] ";
-      }
-      if (args != null && args.length > 0) {
-        sout = String.format(message, args);
+    if (Settings.LogTime && level != -99) {
+      stime = String.format(" (%s)", formatTime(time));
+    }
+    if (!prefix.isEmpty()) {
+      prefix = "[" + prefix + stime + "] ";
+    }
+    if (args != null && args.length > 0) {
+      sout = String.format(message, args);
+    } else {
+      sout = message;
+    }
+    boolean isRedirected = false;
+    if (level > -99) {
+      isRedirected = doRedirect(CallbackType.DEBUG, prefix, sout);
+    } else if (level == -99) {
+      isRedirected = doRedirect(CallbackType.USER, prefix, sout);
+    }
+    if (!isRedirected) {
+      if (level == -99 && printoutuser != null) {
+        printoutuser.println(prefix + sout);
+      } else if (printout != null) {
+        printout.println(prefix + sout);
       } else {
-        sout = message;
+        if (isIDEstarting()) {
+          String log = (prefix.isEmpty() ? "" : String.format("[SXLOG %4.3f] ", Commons.getSinceStart())) + prefix + sout;
+          IDE_START_LOG += log + System.lineSeparator();
+          if (isConsole()) {
+            System.out.println(log);
+          }
+        } else {
+          System.out.println(prefix + sout);
+        }
       }
-      boolean isRedirected = false;
-      if (level > -99) {
-        isRedirected = doRedirect(CallbackType.DEBUG, prefix, sout);
-      } else if (level == -99) {
-        isRedirected = doRedirect(CallbackType.USER, prefix, sout);
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="background writer">
+  private static final LogBuffer buffer = new LogBuffer(4096);
+  private static Thread writer = null;
+
+  /**
+   * write all pending debug lines now (they are otherwise written by a background thread)
+   */
+  public static void flush() {
+    if (buffer == null) {
+      return;
+    }
+    synchronized (Debug.class) {
+      drain();
+    }
+  }
+
+  // caller holds the lock on Debug.class
+  private static void drain() {
+    LogBuffer.Line line;
+    while ((line = buffer.poll()) != null) {
+      try {
+        write(line.level, line.prefix, line.message, line.args, line.time);
+      } catch (RuntimeException e) {
+        write(line.level, line.prefix, line.message + " (log format: " + e.getMessage() + ")", null, line.time);
       }
-      if (!isRedirected) {
-        if (level == -99 && printoutuser != null) {
-          printoutuser.print(prefix + sout);
-          printoutuser.println();
-        } else if (printout != null) {
-          printout.print(prefix + sout);
-          printout.println();
-        } else {
-          if (isIDEstarting()) {
-            String log = (prefix.isEmpty() ? "" : String.format("[SXLOG %4.3f] ", Commons.getSinceStart())) + prefix + sout;
-            IDE_START_LOG += log + System.lineSeparator();
-            if (isConsole()) {
-              System.out.println(log);
+    }
+    flushFiles();
+  }
+
+  // the logfiles are buffered: written once per batch
+  private static void flushFiles() {
+    if (printout != null) {
+      printout.flush();
+    }
+    if (printoutuser != null) {
+      printoutuser.flush();
+    }
+  }
+
+  private static void wakeWriter() {
+    Thread thread = writer;
+    if (thread == null) {
+      synchronized (buffer) {
+        if (writer == null) {
+          writer = new Thread(() -> {
+            while (true) {
+              // woken when a line is added to the empty buffer, at the latest after 100 msec
+              LockSupport.parkNanos(100_000_000L);
+              flush();
             }
-          } else {
-            System.out.println(prefix + sout);
-          }
+          }, "SikuliX-Log");
+          writer.setDaemon(true);
+          writer.start();
         }
+        thread = writer;
       }
     }
+    LockSupport.unpark(thread);
   }
 
+  // mutable objects are turned into their string now - the line is formatted later
+  private static Object[] snapshot(Object[] args) {
+    if (args == null || args.length == 0) {
+      return args;
+    }
+    Object[] copy = new Object[args.length];
+    for (int i = 0; i < args.length; i++) {
+      Object arg = args[i];
+      if (arg == null || arg instanceof String || arg instanceof Number || arg instanceof Boolean
+          || arg instanceof Character || arg instanceof Enum || arg instanceof Fields) {
+        copy[i] = arg;
+      } else {
+        copy[i] = String.valueOf(arg);
+      }
+    }
+    return copy;
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="class logger">
+  private static final ClassValue<Logger> loggers = new ClassValue<Logger>() {
+    @Override
+    protected Logger computeValue(Class<?> clazz) {
+      String name = clazz.getName();
+      return new Logger(name.substring(name.lastIndexOf(".") + 1));
+    }
+  };
+
+  /**
+   * the logger for the given class (created once per class)
+   *
+   * @param clazz the class
+   * @return the logger, that prefixes each message with the short class name
+   */
+  public static Logger logger(Class<?> clazz) {
+    return loggers.get(clazz);
+  }
+
+  /**
+   * logs with the name of a class in front (see Debug.logger())
+   */
+  public static class Logger {
+
+    private final String name;
+
+    private Logger(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean is(int level) {
+      return Debug.is(level);
+    }
+
+    /**
+     * like Debug.logx with the class name in front
+     *
+     * @param level   value
+     * @param message String or format string (String.format)
+     * @param args    to use with format string
+     */
+    public void log(int level, String message, Object... args) {
+      if (level <= DEBUG_LEVEL) {
+        logx(level, name + ": " + message, args);
+      }
+    }
+
+    /**
+     * structured variant: message key1=value1 key2=value2 ...
+     *
+     * @param level     value
+     * @param event     what happened (no format string)
+     * @param keyValues pairs of key and value
+     */
+    public void fields(int level, String event, Object... keyValues) {
+      if (level <= DEBUG_LEVEL) {
+        logx(level, name + ": %s%s", event, new Fields(keyValues));
+      }
+    }
+  }
+
+  // key/value pairs, formatted when written
+  private static class Fields {
+    private final Object[] keyValues;
+
+    Fields(Object[] keyValues) {
+      this.keyValues = snapshot(keyValues);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder fields = new StringBuilder();
+      for (int i = 0; i + 1 < keyValues.length; i += 2) {
+        fields.append(' ').append(keyValues[i]).append('=').append(keyValues[i + 1]);
+      }
+      return fields.toString();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="popup">
   public static void pop(String msg, Object... args) {
     SX.popup(print(msg, args), "Debug Message");
   }
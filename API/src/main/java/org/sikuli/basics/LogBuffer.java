@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.basics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * INTERNAL USE: bounded lock-free ring of log lines for Debug
+ * <p>
+ * any number of threads may offer, only one thread at a time may poll (Debug does this under its lock)
+ */
+class LogBuffer {
+
+  static class Line {
+    final int level;
+    final String prefix;
+    final String message;
+    final Object[] args;
+    final long time;
+
+    Line(int level, String prefix, String message, Object[] args, long time) {
+      this.level = level;
+      this.prefix = prefix;
+      this.message = message;
+      this.args = args;
+      this.time = time;
+    }
+  }
+
+  private final AtomicReferenceArray<Line> slots;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private volatile long head = 0;
+
+  /**
+   * @param size rounded up to a power of 2
+   */
+  LogBuffer(int size) {
+    int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+    slots = new AtomicReferenceArray<>(capacity);
+    mask = capacity - 1;
+  }
+
+  /**
+   * @param line to add
+   * @return 1 if added to an empty ring, 0 if added, -1 if the ring is full
+   */
+  int offer(Line line) {
+    while (true) {
+      long last = tail.get();
+      long first = head;
+      if (last - first >= slots.length()) {
+        return -1;
+      }
+      if (tail.compareAndSet(last, last + 1)) {
+        slots.set((int) (last & mask), line);
+        return last == first ? 1 : 0;
+      }
+    }
+  }
+
+  /**
+   * @return the oldest line or null if empty
+   */
+  Line poll() {
+    long first = head;
+    if (first >= tail.get()) {
+      return null;
+    }
+    int slot = (int) (first & mask);
+    Line line;
+    // the slot is claimed - the writer is about to store the line
+    while ((line = slots.get(slot)) == null) {
+      Thread.onSpinWait();
+    }
+    slots.set(slot, null);
+    head = first + 1;
+    return line;
+  }
+}
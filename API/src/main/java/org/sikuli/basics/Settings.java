@@ -104,6 +104,12 @@ public class Settings {
 
   public static boolean FindProfiling = false;
 
+  /**
+   * true = collect timings and counts of the find operations
+   * (see org.sikuli.script.support.FindMetrics, default: false)
+   */
+  public static boolean FindMetrics = false;
+
   public static boolean InputFontMono = false;
   public static int InputFontSize = 14;
 
@@ -119,6 +125,9 @@ public class Settings {
   public static float AutoWaitTimeout = 3f; // in seconds
   public static float WaitScanRate = 3f; // frames per second
   public static float ObserveScanRate = 3f; // frames per second
+  public static int ObserveThreads = 0; // threads running the background observers' updates (0 = number of cores)
+  public static String ObserveCallbackPolicy = "sync"; // how callbacks are run: sync (on the observing thread), block, drop_oldest or coalesce
+  public static int ObserveCallbackQueue = 16; // events waiting per region for their callbacks
   public static int ObserveMinChangedPixels = 50; // in pixels
   public static int RepeatWaitTime = 1; // wait 1 second for visual to vanish after action
   public static double MinSimilarity = 0.7;
@@ -129,6 +138,41 @@ public class Settings {
   public static boolean CheckLastSeen = true;
   public static float CheckLastSeenSimilar = 0.95f;
 
+  /**
+   * true = search a downsized screen first and confirm the candidates
+   * in the original resolution (default: true)
+   */
+  public static boolean SearchDownsized = true;
+
+  /**
+   * Linux: true = window queries in process with Xlib instead of running xdotool
+   * (experimental, to be set before the first window operation - default: false)
+   */
+  public static boolean LinuxX11 = false;
+
+  /**
+   * number of threads used for parallel find operations like findAny/findBest
+   * (default: 0 = number of available cores)
+   */
+  public static int FindThreads = 0;
+
+  /**
+   * true = when repeating a search (wait, observe), a target not found before
+   * is only searched in the areas changed since the last capture (default: true)
+   */
+  public static boolean RepeatSearchChanges = true;
+
+  /**
+   * findAll: matches overlapping a better match by more than this
+   * (intersection over union of the match rectangles) are dropped (default: 0.1)
+   */
+  public static double FindAllMaxOverlap = 0.1;
+
+  /**
+   * findAll: at most this many matches (best first, default: 0 = no limit)
+   */
+  public static int FindAllMax = 0;
+
   public static org.sikuli.script.ImageCallback ImageCallback = null;
 
   private static int ImageCache = 64;
@@ -175,18 +219,27 @@ public class Settings {
 
   public static String BundlePath = null;
   public static String WorkdirBundlePath = "SikulixBundlePath";
+  public static boolean ImagePathIndex = true; // resolve image names via watched folder and jar listings
+  public static String ImagePathIndexFile = null; // file to keep jar listings across runs (null = not kept)
 
   public static boolean OverwriteImages = false;
 
+  public static boolean JythonCodeCache = true; // compiled Jython scripts and modules kept in <app data>/JythonCache
+
   public static final String OcrLanguageDefault = "eng";
   public static String OcrLanguage = OcrLanguageDefault;
   public static String OcrDataPath = null;
+  public static int OcrPoolSize = 4; // initialized Tesseract engines kept per OCR.Options
+  public static int OcrCacheSize = 32; // OCR results kept for identical image content (0 = no caching)
   public static boolean OcrTextSearch = true;
+  public static boolean OcrTextSearchSinglePass = true; // findText: lines and words from one OCR pass
   public static boolean OcrTextRead = true;
   public static boolean SwitchToText = false;
 
   public static float SlowMotionDelay = 2.0f; // in seconds
   public static float MoveMouseDelay = 0.5f; // in seconds
+  public static int MoveMouseRate = 60; // mouse positions per second while moving smoothly
+  public static String MoveMouseShape = "ease"; // path of a smooth move: linear, ease or bezier
   private static float MoveMouseDelaySaved = MoveMouseDelay;
   private static boolean ShowActions = false;
 
@@ -219,6 +272,7 @@ public class Settings {
   public static boolean ProfileLogs = false;
   public static boolean TraceLogs = false;
   public static boolean LogTime = false;
+  public static boolean LogAsync = true; // debug lines (level > 0) are written by a background thread
 
   public static boolean UserLogs = true;
   public static String UserLogPrefix = "user";
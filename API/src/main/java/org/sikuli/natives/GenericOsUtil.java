@@ -10,6 +10,8 @@ import org.sikuli.basics.Debug;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -55,12 +57,72 @@ public abstract class GenericOsUtil implements OSUtil {
       }
     }
 
+    @Override
+    public CompletableFuture<OsProcess> onExit() {
+      return process.onExit().thenApply((h) -> this);
+    }
+
     @Override
     public boolean equals(Object other) {
       return other != null && other instanceof OsProcess && this.getPid() == ((OsProcess) other).getPid();
     }
   }
 
+  // msec between the checks, where the system does not report window changes
+  protected static final long WINDOW_POLL = 100;
+
+  private static ScheduledExecutorService windowWatcher = null;
+
+  protected static synchronized ScheduledExecutorService getWindowWatcher() {
+    if (windowWatcher == null) {
+      windowWatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SikuliX-WindowWatcher");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return windowWatcher;
+  }
+
+  @Override
+  public CompletableFuture<List<OsWindow>> onWindows(OsProcess process) {
+    return watch(() -> {
+      List<OsWindow> found = getWindows(process);
+      return found.isEmpty() ? null : found;
+    });
+  }
+
+  @Override
+  public CompletableFuture<OsProcess> onFocus(OsProcess process) {
+    return watch(() -> {
+      OsProcess focused = getFocusedProcess();
+      return focused != null && focused.getPid() == process.getPid() ? focused : null;
+    });
+  }
+
+  /**
+   * completes with the first non-null result of check, which is run on the shared window watcher
+   *
+   * @param check returns null as long as the awaited state is not reached
+   * @param <T> result type
+   * @return completes with the result of check (cancel it to stop watching)
+   */
+  protected <T> CompletableFuture<T> watch(Supplier<T> check) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    ScheduledFuture<?> polling = getWindowWatcher().scheduleWithFixedDelay(() -> {
+      try {
+        T found = check.get();
+        if (found != null) {
+          result.complete(found);
+        }
+      } catch (Exception e) {
+        result.completeExceptionally(e);
+      }
+    }, 0, WINDOW_POLL, TimeUnit.MILLISECONDS);
+    result.whenComplete((found, e) -> polling.cancel(false));
+    return result;
+  }
+
   @Override
   public void init() {
     // nothing to do
@@ -13,6 +13,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 import org.sikuli.basics.Debug;
@@ -30,6 +35,16 @@ public class LinuxUtil extends GenericOsUtil {
 
 		@Override
 		public OsProcess getProcess() {
+			if (LinuxX11.isAvailable()) {
+				long pid = LinuxX11.getPid(id);
+				if (pid > 0) {
+					Optional<ProcessHandle> handle = ProcessHandle.of(pid);
+					if (handle.isPresent()) {
+						return new GenericOsProcess(handle.get());
+					}
+				}
+				return null;
+			}
 			try {
 				List<String> lines = xdotool(new String[] { "getwindowpid", Long.toString(id) });
 
@@ -48,6 +63,9 @@ public class LinuxUtil extends GenericOsUtil {
 
 		@Override
 		public String getTitle() {
+			if (LinuxX11.isAvailable()) {
+				return LinuxX11.getTitle(id);
+			}
 			try {
 				List<String> lines = xdotool(new String[] { "getwindowname", Long.toString(id) });
 				return lines.stream().findFirst().orElse("");
@@ -58,6 +76,9 @@ public class LinuxUtil extends GenericOsUtil {
 
 		@Override
 		public Rectangle getBounds() {
+			if (LinuxX11.isAvailable()) {
+				return LinuxX11.getBounds(id);
+			}
 			try {
 				List<String> lines = xdotool(new String[] { "getwindowgeometry", "--shell", Long.toString(id) });
 
@@ -83,6 +104,9 @@ public class LinuxUtil extends GenericOsUtil {
 
 		@Override
 		public boolean focus() {
+			if (LinuxX11.isAvailable()) {
+				return LinuxX11.activate(id);
+			}
 			try {
 				xdotool(new String[] { "windowactivate", "--sync", Long.toString(id) });
 				return true;
@@ -121,6 +145,13 @@ public class LinuxUtil extends GenericOsUtil {
 	private static ProcessRunner xdotoolRunner = new ProcessRunner();
 
 	static {
+		// window handling with Xlib in process - xdotool only needed without
+		if (!LinuxX11.isAvailable()) {
+			checkXdotool();
+		}
+	}
+
+	private static void checkXdotool() {
 		try {
 			xdotool(new String[] { "-v" });
 		} catch (Exception e) {
@@ -159,6 +190,10 @@ public class LinuxUtil extends GenericOsUtil {
 
 	@Override
 	public List<OsWindow> getWindows() {
+		if (LinuxX11.isAvailable()) {
+			return LinuxX11.getWindows().stream().filter(LinuxX11::isViewable).map(LinuxWindow::new)
+					.collect(Collectors.toList());
+		}
 		throw new UnsupportedOperationException("getWindows not implemented");
 	}
 
@@ -169,6 +204,19 @@ public class LinuxUtil extends GenericOsUtil {
 
 	@Override
 	public List<OsWindow> findWindows(String title) {
+		if (LinuxX11.isAvailable()) {
+			// as xdotool search --name: case insensitive regular expression
+			Predicate<String> matches;
+			try {
+				matches = Pattern.compile(title, Pattern.CASE_INSENSITIVE).asPredicate();
+			} catch (PatternSyntaxException e) {
+				matches = (name) -> name.toLowerCase().contains(title.toLowerCase());
+			}
+			final Predicate<String> titleMatches = matches;
+			return LinuxX11.getWindows().stream()
+					.filter((w) -> LinuxX11.isViewable(w) && titleMatches.test(LinuxX11.getTitle(w)))
+					.map(LinuxWindow::new).collect(Collectors.toList());
+		}
 		try {
 			List<String> lines = xdotool(new String[] { "search", "--onlyvisible", "--name", title });
 			return lines.stream().map((l) -> new LinuxWindow(Long.parseLong(l))).collect(Collectors.toList());
@@ -179,6 +227,11 @@ public class LinuxUtil extends GenericOsUtil {
 
 	@Override
 	public List<OsWindow> getWindows(OsProcess process) {
+		if (LinuxX11.isAvailable()) {
+			return LinuxX11.getWindows().stream()
+					.filter((w) -> LinuxX11.isViewable(w) && LinuxX11.getPid(w) == process.getPid())
+					.map(LinuxWindow::new).collect(Collectors.toList());
+		}
 		try {
 			List<String> lines = xdotool(
 					new String[] { "search", "--onlyvisible", "--pid", Long.toString(process.getPid()) });
@@ -188,8 +241,37 @@ public class LinuxUtil extends GenericOsUtil {
 		}
 	}
 
+	@Override
+	protected <T> CompletableFuture<T> watch(Supplier<T> check) {
+		if (!LinuxX11.isAvailable()) {
+			return super.watch(check);
+		}
+		// checked when X reports changed top level windows or focus - no polling
+		CompletableFuture<T> result = new CompletableFuture<>();
+		Runnable listener = () -> {
+			try {
+				T found = check.get();
+				if (found != null) {
+					result.complete(found);
+				}
+			} catch (Exception e) {
+				result.completeExceptionally(e);
+			}
+		};
+		if (!LinuxX11.addListener(listener)) {
+			return super.watch(check);
+		}
+		result.whenComplete((found, e) -> LinuxX11.removeListener(listener));
+		listener.run();
+		return result;
+	}
+
 	@Override
 	public OsWindow getFocusedWindow() {
+		if (LinuxX11.isAvailable()) {
+			long id = LinuxX11.getActiveWindow();
+			return id > 0 ? new LinuxWindow(id) : null;
+		}
 		try {
 			List<String> lines = xdotool(new String[] { "getactivewindow" });
 
@@ -206,7 +288,7 @@ public class LinuxUtil extends GenericOsUtil {
 	@Override
 	public OsProcess getFocusedProcess() {
 		final OsWindow focusedWindow = getFocusedWindow();
-		return focusedWindow.getProcess();
+		return focusedWindow == null ? null : focusedWindow.getProcess();
 	}
 
 	@Override
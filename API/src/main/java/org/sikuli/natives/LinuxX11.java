@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.natives;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.unix.X11;
+import com.sun.jna.platform.unix.X11.Atom;
+import com.sun.jna.platform.unix.X11.Display;
+import com.sun.jna.platform.unix.X11.Window;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.NativeLongByReference;
+import com.sun.jna.ptr.PointerByReference;
+import org.sikuli.basics.Debug;
+import org.sikuli.basics.Settings;
+
+import java.awt.Rectangle;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * INTERNAL USE: the window queries of LinuxUtil done in process with Xlib (JNA) - no xdotool processes
+ * <p>
+ * The top level windows are taken from the window manager's _NET_CLIENT_LIST (EWMH),
+ * without such a window manager the children of the root window are used.<br>
+ * Only used with Settings.LinuxX11 (otherwise LinuxUtil runs xdotool).
+ * <p>
+ * The window list, the active window and the pid per window are cached.
+ * Only the root window's events are selected (PropertyNotify, SubstructureNotify): they are read by a watcher thread
+ * on a second display connection, that invalidates the cache and tells the listeners.
+ * Without the watcher nothing is cached. Titles and map states are always asked for.<br>
+ * All queries share one display connection (no events selected) and are serialized
+ * (a query is a round trip to the X server). Xlib is initialized for threads (XInitThreads).
+ */
+class LinuxX11 {
+
+  private static final String me = "LinuxX11: ";
+  private static final int lvl = 3;
+
+  private static void log(int level, String message, Object... args) {
+    Debug.logx(level, me + message, args);
+  }
+
+  // max length of a property read in 32-bit units
+  private static final long MAX_LENGTH = 1 << 16;
+  // like xdotool windowactivate --sync
+  private static final long ACTIVATE_WAIT = 2000;
+
+  private static SXX11 x11 = null;
+  private static Display display = null;
+  private static Display watchedDisplay = null;
+  private static Window root = null;
+  private static boolean tried = false;
+
+  // kept here, so it is not garbage collected while set in Xlib
+  private static X11.XErrorHandler errorHandler = null;
+  private static X11.XErrorHandler previousErrorHandler = null;
+
+  private static Atom NET_SUPPORTED;
+  private static Atom NET_CLIENT_LIST;
+  private static Atom NET_ACTIVE_WINDOW;
+  private static Atom NET_WM_PID;
+  private static Atom NET_WM_NAME;
+  private static Atom UTF8_STRING;
+
+  //<editor-fold desc="01 display">
+  /**
+   * @return false if there is no X display or libX11 cannot be loaded
+   */
+  static synchronized boolean isAvailable() {
+    if (!Settings.LinuxX11) {
+      return false;
+    }
+    if (!tried) {
+      tried = true;
+      open();
+    }
+    return display != null;
+  }
+
+  private static void open() {
+    if (System.getenv("DISPLAY") == null) {
+      log(lvl, "not used: DISPLAY not set");
+      return;
+    }
+    try {
+      x11 = SXX11.INSTANCE;
+      // two connections used by different threads (a no-op, if already done, e.g. by libX11 1.8+)
+      if (x11.XInitThreads() == 0) {
+        log(-1, "XInitThreads failed: not used");
+        return;
+      }
+      Display opened = x11.XOpenDisplay(null);
+      if (opened == null) {
+        log(-1, "not used: cannot open display %s", System.getenv("DISPLAY"));
+        return;
+      }
+      // a window vanishing between two requests must not end the process (Xlib's default handler)
+      errorHandler = new X11.XErrorHandler() {
+        @Override
+        public int apply(Display errorDisplay, X11.XErrorEvent errorEvent) {
+          if (opened.equals(errorDisplay) || (errorDisplay != null && errorDisplay.equals(watchedDisplay))
+              || previousErrorHandler == null) {
+            return 0;
+          }
+          return previousErrorHandler.apply(errorDisplay, errorEvent);
+        }
+      };
+      previousErrorHandler = x11.XSetErrorHandler(errorHandler);
+      root = x11.XDefaultRootWindow(opened);
+      NET_SUPPORTED = x11.XInternAtom(opened, "_NET_SUPPORTED", false);
+      NET_CLIENT_LIST = x11.XInternAtom(opened, "_NET_CLIENT_LIST", false);
+      NET_ACTIVE_WINDOW = x11.XInternAtom(opened, "_NET_ACTIVE_WINDOW", false);
+      NET_WM_PID = x11.XInternAtom(opened, "_NET_WM_PID", false);
+      NET_WM_NAME = x11.XInternAtom(opened, "_NET_WM_NAME", false);
+      UTF8_STRING = x11.XInternAtom(opened, "UTF8_STRING", false);
+      display = opened;
+      startWatcher();
+      log(lvl, "using display %s (%s)", System.getenv("DISPLAY"),
+          getSupported().isEmpty() ? "no EWMH window manager" : "EWMH window manager");
+    } catch (Throwable e) {
+      log(-1, "not used: %s", e);
+      display = null;
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="02 cache">
+  // only used, while the watcher invalidates them (guarded by LinuxX11.class)
+  private static final Map<Long, Long> pids = new HashMap<>();
+  private static List<Long> clients = null;
+  private static Long activeWindow = null;
+  private static Set<Long> supported = null;
+  private static boolean caching = false;
+
+  // called by the watcher for an event on the root window
+  private static synchronized boolean invalidate(X11.XEvent rootEvent) {
+    X11.XAnyEvent any = (X11.XAnyEvent) rootEvent.readField("xany");
+    switch (any.type) {
+      case X11.PropertyNotify:
+        long atom = ((X11.XPropertyEvent) rootEvent.readField("xproperty")).atom.longValue();
+        if (atom == NET_CLIENT_LIST.longValue()) {
+          clients = null;
+          return true;
+        } else if (atom == NET_ACTIVE_WINDOW.longValue()) {
+          activeWindow = null;
+          return true;
+        } else if (atom == NET_SUPPORTED.longValue()) {
+          supported = null;
+        }
+        return false;
+      case X11.MapNotify:
+      case X11.UnmapNotify:
+      case X11.DestroyNotify:
+        clients = null;
+        return true;
+      case X11.CreateNotify:
+      case X11.ReparentNotify:
+        clients = null;
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  private static Set<Long> getSupported() {
+    if (supported == null || !caching) {
+      Set<Long> atoms = new HashSet<>();
+      long[] values = getLongs(root, NET_SUPPORTED, X11.XA_ATOM);
+      if (values != null) {
+        for (long atom : values) {
+          atoms.add(atom);
+        }
+      }
+      supported = atoms;
+    }
+    return supported;
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="03 queries">
+  /**
+   * @return the top level windows (mapped or not)
+   */
+  static synchronized List<Long> getWindows() {
+    if (clients == null || !caching) {
+      long[] windows = null;
+      if (getSupported().contains(NET_CLIENT_LIST.longValue())) {
+        windows = getLongs(root, NET_CLIENT_LIST, X11.XA_WINDOW);
+      }
+      if (windows == null) {
+        windows = getChildren(root);
+      }
+      List<Long> list = new ArrayList<>();
+      for (long window : windows) {
+        list.add(window);
+      }
+      clients = Collections.unmodifiableList(list);
+      // window ids might be reused after a window is gone
+      pids.keySet().retainAll(list);
+    }
+    return clients;
+  }
+
+  static synchronized boolean isViewable(long id) {
+    X11.XWindowAttributes attributes = new X11.XWindowAttributes();
+    return x11.XGetWindowAttributes(display, new Window(id), attributes) != 0
+        && attributes.map_state == X11.IsViewable;
+  }
+
+  /**
+   * @param id the window
+   * @return the pid (_NET_WM_PID) or -1 if not known
+   */
+  static synchronized long getPid(long id) {
+    Long pid = caching ? pids.get(id) : null;
+    if (pid == null) {
+      long[] values = getLongs(new Window(id), NET_WM_PID, X11.XA_CARDINAL);
+      pid = values == null || values.length == 0 ? -1 : values[0];
+      if (caching) {
+        pids.put(id, pid);
+      }
+    }
+    return pid;
+  }
+
+  /**
+   * @param id the window
+   * @return the title (_NET_WM_NAME or WM_NAME), empty if none
+   */
+  static synchronized String getTitle(long id) {
+    String title = getText(new Window(id), NET_WM_NAME);
+    if (title == null) {
+      title = getText(new Window(id), X11.XA_WM_NAME);
+    }
+    return title == null ? "" : title;
+  }
+
+  /**
+   * @param id the window
+   * @return the window's area on the screen (without the window manager's frame), null if not possible
+   */
+  static synchronized Rectangle getBounds(long id) {
+    Window window = new Window(id);
+    X11.XWindowAttributes attributes = new X11.XWindowAttributes();
+    if (x11.XGetWindowAttributes(display, window, attributes) == 0) {
+      return null;
+    }
+    IntByReference x = new IntByReference();
+    IntByReference y = new IntByReference();
+    X11.WindowByReference child = new X11.WindowByReference();
+    if (!x11.XTranslateCoordinates(display, window, root, 0, 0, x, y, child)) {
+      return null;
+    }
+    return new Rectangle(x.getValue(), y.getValue(), attributes.width, attributes.height);
+  }
+
+  /**
+   * @return the active window (_NET_ACTIVE_WINDOW or the top level window having the input focus), 0 if none
+   */
+  static synchronized long getActiveWindow() {
+    if (getSupported().contains(NET_ACTIVE_WINDOW.longValue())) {
+      if (activeWindow == null || !caching) {
+        long[] active = getLongs(root, NET_ACTIVE_WINDOW, X11.XA_WINDOW);
+        activeWindow = active == null || active.length == 0 ? 0 : active[0];
+      }
+      return activeWindow;
+    }
+    X11.WindowByReference focus = new X11.WindowByReference();
+    x11.XGetInputFocus(display, focus, new IntByReference());
+    long window = focus.getValue() == null ? 0 : focus.getValue().longValue();
+    if (window <= 1) { // None or PointerRoot
+      return 0;
+    }
+    return getTopLevel(window);
+  }
+
+  /**
+   * make the window the active one and wait until the window manager has done it
+   *
+   * @param id the window
+   * @return false if the window is not the active one after some time
+   */
+  static boolean activate(long id) {
+    if (!requestActivate(id)) {
+      return false;
+    }
+    long until = System.currentTimeMillis() + ACTIVATE_WAIT;
+    while (getActiveWindow() != id) {
+      if (System.currentTimeMillis() > until) {
+        log(lvl, "activate: window %d not active after %d msec", id, ACTIVATE_WAIT);
+        return false;
+      }
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static synchronized boolean requestActivate(long id) {
+    Window window = new Window(id);
+    if (getSupported().contains(NET_ACTIVE_WINDOW.longValue())) {
+      X11.XEvent request = new X11.XEvent();
+      X11.XClientMessageEvent message = request.xclient;
+      message.type = X11.ClientMessage;
+      message.send_event = 1;
+      message.display = display;
+      message.window = window;
+      message.message_type = NET_ACTIVE_WINDOW;
+      message.format = 32;
+      message.data.setType(NativeLong[].class);
+      message.data.l[0] = new NativeLong(2); // source: pager (as xdotool)
+      message.data.l[1] = new NativeLong(0); // CurrentTime
+      message.data.l[2] = new NativeLong(activeWindow == null ? 0 : activeWindow);
+      request.setType(X11.XClientMessageEvent.class);
+      if (x11.XSendEvent(display, root, 0,
+          new NativeLong(X11.SubstructureRedirectMask | X11.SubstructureNotifyMask), request) == 0) {
+        return false;
+      }
+    } else {
+      x11.XMapRaised(display, window);
+      x11.XSetInputFocus(display, window, SXX11.RevertToParent, new NativeLong(0));
+    }
+    x11.XFlush(display);
+    return true;
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="04 watcher, listeners">
+  private static final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+  private static Thread watcher = null;
+
+  // the root window's events are read on a second connection (the query connection selects none)
+  private static void startWatcher() {
+    Display watched = x11.XOpenDisplay(null);
+    if (watched == null) {
+      log(-1, "watcher: cannot open display %s (no caching, no listeners)", System.getenv("DISPLAY"));
+      return;
+    }
+    watchedDisplay = watched;
+    x11.XSelectInput(watched, x11.XDefaultRootWindow(watched),
+        new NativeLong(X11.PropertyChangeMask | X11.SubstructureNotifyMask));
+    x11.XFlush(watched);
+    watcher = new Thread(() -> watch(watched), "SikuliX-X11-Watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+    caching = true;
+  }
+
+  /**
+   * the listener is run (on the watcher thread), when top level windows appear or vanish or the active window changes
+   *
+   * @param listener the listener
+   * @return false if not possible (no second display connection)
+   */
+  static synchronized boolean addListener(Runnable listener) {
+    if (!isAvailable() || watcher == null) {
+      return false;
+    }
+    listeners.add(listener);
+    return true;
+  }
+
+  static void removeListener(Runnable listener) {
+    listeners.remove(listener);
+  }
+
+  // the only user of this connection: blocks in XNextEvent
+  private static void watch(Display watched) {
+    X11.XEvent watchedEvent = new X11.XEvent();
+    while (true) {
+      x11.XNextEvent(watched, watchedEvent);
+      if (!invalidate(watchedEvent)) {
+        continue;
+      }
+      for (Runnable listener : listeners) {
+        try {
+          listener.run();
+        } catch (Exception e) {
+          log(-1, "watcher: listener: %s", e);
+        }
+      }
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="05 Xlib helpers">
+  private static long[] getChildren(Window window) {
+    X11.WindowByReference rootReturn = new X11.WindowByReference();
+    X11.WindowByReference parentReturn = new X11.WindowByReference();
+    PointerByReference children = new PointerByReference();
+    IntByReference count = new IntByReference();
+    if (x11.XQueryTree(display, window, rootReturn, parentReturn, children, count) == 0) {
+      return new long[0];
+    }
+    Pointer pointer = children.getValue();
+    if (pointer == null) {
+      return new long[0];
+    }
+    try {
+      long[] windows = new long[count.getValue()];
+      for (int n = 0; n < windows.length; n++) {
+        windows[n] = pointer.getNativeLong((long) n * Native.LONG_SIZE).longValue();
+      }
+      return windows;
+    } finally {
+      x11.XFree(pointer);
+    }
+  }
+
+  // the ancestor of the window, that is a child of the root window
+  private static long getTopLevel(long window) {
+    while (true) {
+      X11.WindowByReference rootReturn = new X11.WindowByReference();
+      X11.WindowByReference parentReturn = new X11.WindowByReference();
+      PointerByReference children = new PointerByReference();
+      IntByReference count = new IntByReference();
+      if (x11.XQueryTree(display, new Window(window), rootReturn, parentReturn, children, count) == 0) {
+        return window;
+      }
+      if (children.getValue() != null) {
+        x11.XFree(children.getValue());
+      }
+      Window parent = parentReturn.getValue();
+      if (parent == null || parent.longValue() == 0 || root.equals(parent)) {
+        return window;
+      }
+      window = parent.longValue();
+    }
+  }
+
+  // a property with format 32 (CARDINAL, WINDOW, ATOM), null if not there
+  private static long[] getLongs(Window window, Atom property, Atom type) {
+    X11.AtomByReference actualType = new X11.AtomByReference();
+    IntByReference actualFormat = new IntByReference();
+    NativeLongByReference items = new NativeLongByReference();
+    NativeLongByReference bytesAfter = new NativeLongByReference();
+    PointerByReference data = new PointerByReference();
+    if (x11.XGetWindowProperty(display, window, property, new NativeLong(0), new NativeLong(MAX_LENGTH), false,
+        type, actualType, actualFormat, items, bytesAfter, data) != X11.Success) {
+      return null;
+    }
+    Pointer pointer = data.getValue();
+    if (pointer == null) {
+      return null;
+    }
+    try {
+      if (actualFormat.getValue() != 32) {
+        return null;
+      }
+      long[] values = new long[items.getValue().intValue()];
+      for (int n = 0; n < values.length; n++) {
+        values[n] = pointer.getNativeLong((long) n * Native.LONG_SIZE).longValue();
+      }
+      return values;
+    } finally {
+      x11.XFree(pointer);
+    }
+  }
+
+  // a text property (UTF8_STRING or STRING), null if not there
+  private static String getText(Window window, Atom property) {
+    X11.AtomByReference actualType = new X11.AtomByReference();
+    IntByReference actualFormat = new IntByReference();
+    NativeLongByReference items = new NativeLongByReference();
+    NativeLongByReference bytesAfter = new NativeLongByReference();
+    PointerByReference data = new PointerByReference();
+    if (x11.XGetWindowProperty(display, window, property, new NativeLong(0), new NativeLong(MAX_LENGTH), false,
+        new Atom(X11.AnyPropertyType), actualType, actualFormat, items, bytesAfter, data) != X11.Success) {
+      return null;
+    }
+    Pointer pointer = data.getValue();
+    if (pointer == null) {
+      return null;
+    }
+    try {
+      if (actualFormat.getValue() != 8) {
+        return null;
+      }
+      byte[] bytes = pointer.getByteArray(0, items.getValue().intValue());
+      boolean utf8 = UTF8_STRING.equals(actualType.getValue());
+      return new String(bytes, utf8 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    } finally {
+      x11.XFree(pointer);
+    }
+  }
+  //</editor-fold>
+}
@@ -249,10 +249,11 @@ public class MacUtil extends GenericOsUtil {
   protected ProcessHandle openGetProcess(Process p, String[] cmd, int waitTime) {
     //return p.toHandle();
     List<OsProcess> processes;
+    long until = System.currentTimeMillis() + Math.max(1, waitTime) * 1000L;
     do {
-      App.pause(1);
+      App.pause(WINDOW_POLL / 1000f);
       processes = findProcesses(cmd[2]);
-    } while (processes.size() == 0 && --waitTime > 0);
+    } while (processes.size() == 0 && System.currentTimeMillis() < until);
     if (processes.size() == 0) {
       return null;
     } else {
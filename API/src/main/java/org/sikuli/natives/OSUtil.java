@@ -5,6 +5,7 @@ package org.sikuli.natives;
 
 import java.awt.Rectangle;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface OSUtil {
 
@@ -17,6 +18,11 @@ public interface OSUtil {
 		public abstract boolean isRunning();
 
 		public abstract boolean close(boolean force);
+
+		/**
+		 * @return completes with this process, when it has ended
+		 */
+		public abstract CompletableFuture<OsProcess> onExit();
 	}
 
 	public abstract static class OsWindow {
@@ -56,6 +62,22 @@ public interface OSUtil {
 
 	List<OsWindow> getWindows(OsProcess process);
 
+	/**
+	 * wait for the windows of a process (cancel the future to stop waiting)
+	 *
+	 * @param process the process
+	 * @return completes with the process' windows, as soon as it has at least one
+	 */
+	CompletableFuture<List<OsWindow>> onWindows(OsProcess process);
+
+	/**
+	 * Watches for the process to own the focused window (no own polling needed).
+	 *
+	 * @param process the process
+	 * @return completes with the focused process, as soon as it is the given one
+	 */
+	CompletableFuture<OsProcess> onFocus(OsProcess process);
+
 	List<OsWindow> getWindows();
 
 	List<OsWindow> getAppWindows();
@@ -4,13 +4,12 @@ import org.opencv.core.Core;
 import org.opencv.core.Mat;
 import org.sikuli.basics.Debug;
 import org.sikuli.script.support.Commons;
+import org.sikuli.script.support.NativeBootstrap;
 import org.sikuli.script.support.RunTime;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -90,23 +89,40 @@ public class OpenCV {
   }
 
   /**
-   * Extracts the packaged binary (if available) to the given destination
+   * The packaged binary for the current platform as item for NativeBootstrap
+   *
+   * @return null if the platform is not supported
    */
-  public static File extractNativeBinary(File destination) {
-    final OS os = OS.getCurrent();
-    final Arch arch = Arch.getCurrent();
-    File outFile = null;
+  public static NativeBootstrap.Item getNativeItem() {
     try {
-      outFile = extractNativeBinary(os, arch, destination);
+      String location = getNativeLocation(OS.getCurrent(), Arch.getCurrent());
+      return new NativeBootstrap.Item(location, Commons.class, Commons.getLibFilename(libOpenCV), false);
     } catch (UnsupportedPlatformException e) {
+      return null;
     }
+  }
+
+  /**
+   * Extracts the packaged binary (if available) to the given destination
+   * (again, if the extracted file is no longer valid - see NativeBootstrap)
+   */
+  public static File extractNativeBinary(File destination) {
+    NativeBootstrap.Item item = getNativeItem();
+    if (item == null) {
+      return null;
+    }
+    if (NativeBootstrap.extract("OpenCV", destination, Collections.singletonList(item)) < 0) {
+      return null;
+    }
+    File outFile = new File(destination, item.getName());
+    Debug.log(3, "OpenCV lib: %s (%s %s)", outFile, OS.getCurrent(), Arch.getCurrent());
     return outFile;
   }
 
   /**
-   * Extracts the packaged binary for the specified platform to the given destination
+   * The location of the packaged binary for the specified platform
    */
-  private static File extractNativeBinary(final OS os, final Arch arch, File destination) throws UnsupportedPlatformException {
+  private static String getNativeLocation(final OS os, final Arch arch) throws UnsupportedPlatformException {
     String location;
     String libName = Commons.getLibFilename(libOpenCV);
 
@@ -148,19 +164,7 @@ public class OpenCV {
         throw new UnsupportedPlatformException(os, arch);
     }
 
-    location += libName;
-
-    File outFile = new File(destination, libName);
-    if (!outFile.exists()) {
-      try (FileOutputStream outStream = new FileOutputStream(outFile);
-           InputStream inStream = Commons.class.getResourceAsStream(location)) {
-        Commons.copy(inStream, outStream);
-        Debug.log(3, "OpenCV lib: %s (%s %s)", outFile, os, arch);
-      } catch (Exception ex) {
-        return null;
-      }
-    }
-    return outFile;
+    return location + libName;
   }
 
   private static final String libOpenCV = Core.NATIVE_LIBRARY_NAME;
@@ -168,7 +172,11 @@ public class OpenCV {
   public static File load() {
     File lib = extractNativeBinary(Commons.getLibsFolder());
     if(null != lib) {
+      File extracted = lib;
       lib = Commons.loadLib(lib);
+      if (null == lib && NativeBootstrap.repair(extracted.getParentFile(), getNativeItem())) {
+        lib = Commons.loadLib(extracted);
+      }
       if (null == lib) {
         Debug.error("Trying system-wide load for: opencv_java");
         lib = Commons.loadLib(new File("opencv_java"));
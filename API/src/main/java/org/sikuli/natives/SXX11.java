@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.natives;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.platform.unix.X11;
+import com.sun.jna.ptr.IntByReference;
+
+public interface SXX11 extends X11 {
+
+  SXX11 INSTANCE = Native.load("X11", SXX11.class);
+
+  int RevertToParent = 2;
+
+  int XInitThreads();
+
+  int XSetInputFocus(Display display, Window focus, int revert_to, NativeLong time);
+
+  int XGetInputFocus(Display display, WindowByReference focus_return, IntByReference revert_to_return);
+
+}
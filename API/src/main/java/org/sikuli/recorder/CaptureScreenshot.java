@@ -4,6 +4,8 @@ import org.sikuli.script.Image;
 import org.sikuli.script.Mouse;
 import org.sikuli.script.Screen;
 
+import java.util.Date;
+
 /**
  * Captures the screenshot from the screen where the mouse is located and saves it to the given directory.
  *
@@ -23,4 +25,10 @@ public class CaptureScreenshot {
         saveToFile.saveImageWithDate(screenshot, baseFileName);
     }
 
+    public void streamScreenshot(ScreenshotStream stream) {
+        long time = new Date().getTime();
+        Screen activeScreen = Mouse.at().getMonitor();
+        stream.offer(activeScreen.capture().getImage(), time);
+    }
+
 }
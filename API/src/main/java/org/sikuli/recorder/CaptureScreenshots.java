@@ -1,10 +1,14 @@
 package org.sikuli.recorder;
 
+import org.sikuli.basics.Debug;
+
 import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Repeats the capture with a delay, during which other calls to this method are ignored.
@@ -24,16 +28,48 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
  */
 public class CaptureScreenshots {
 
-    private final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor();
+    private ScheduledExecutorService scheduler = null;
+    private ScreenshotStream screenshotStream = null;
 
+    /**
+     * the screenshots go to one file (see ScreenshotStream) in the folder of saveToFile,
+     * encoding is done on an extra thread, so the capture keeps its pace.
+     */
     public synchronized void startCapturing(SaveToFile saveToFile, String baseFilename, int delayInMilliseconds) {
+        stopCapturing();
+        try {
+            screenshotStream = new ScreenshotStream(
+                new File(saveToFile.getFolder(), baseFilename + ScreenshotStream.EXTENSION));
+        } catch (IOException e) {
+            Debug.error("CaptureScreenshots: not possible: %s", e.getMessage());
+            return;
+        }
         CaptureScreenshot captureScreenshot = new CaptureScreenshot(saveToFile);
-        SCHEDULER.scheduleAtFixedRate((() -> {
-            captureScreenshot.saveScreenshot(baseFilename);
+        ScreenshotStream stream = screenshotStream;
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate((() -> {
+            try {
+                captureScreenshot.streamScreenshot(stream);
+            } catch (Exception e) {
+                // an exception would stop the schedule
+                Debug.error("CaptureScreenshots: %s", e.getMessage());
+            }
         }), 0, delayInMilliseconds, MILLISECONDS);
     }
 
     public synchronized void stopCapturing() {
-        SCHEDULER.shutdown();
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        if (screenshotStream != null) {
+            screenshotStream.close();
+            screenshotStream = null;
+        }
     }
 }
@@ -68,6 +68,7 @@ public class CaptureUserInputs implements NativeKeyListener, NativeMouseListener
         GlobalScreen.removeNativeMouseMotionListener(this);
         GlobalScreen.removeNativeMouseWheelListener(this);
         unregisterNativeHook();
+        recordInputs.finish();
         return recordInputs.getDoc();
     }
 
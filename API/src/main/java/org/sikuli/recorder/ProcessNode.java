@@ -14,4 +14,22 @@ import org.w3c.dom.NodeList;
  */
 public interface ProcessNode {
     void populateNodeList(NodeList childNodes, RecordInputsXML doc);
+
+    /**
+     * Used when the recording is processed as a stream (one action after the other,
+     *   see ProcessRecording.process(File, File)): decides, whether the action is kept.
+     *
+     * @param name   the kind of action (MOVE, CLICK, ...)
+     * @param millis time since start of recording
+     * @return true to keep the action (default: all are kept)
+     */
+    default boolean accept(String name, double millis) {
+        return true;
+    }
+
+    /**
+     * forget the state of a previous processing
+     */
+    default void reset() {
+    }
 }
@@ -22,20 +22,30 @@ public class ProcessNodePauses implements ProcessNode {
             Node tempNode = rawData.item(count);
             if (tempNode.getNodeType() == Node.ELEMENT_NODE) { // make sure it's element node.
                 if (tempNode.hasAttributes()) {
-                    if (tempNode.getNodeName().equals("MOVE") ||
-                        tempNode.getNodeName().equals("DRAG")) {
-                        NamedNodeMap nodeMap = tempNode.getAttributes();
-                        timelapseFromStartOfRecording = Double.parseDouble(nodeMap.getNamedItem("millis").getNodeValue());
-                        if (timelapseFromStartOfRecording - lastTimeLapse >= minTimeDifference
-                            || lastTimeLapse == 0.0) {
-                            doc.addElement(tempNode);
-                            lastTimeLapse = timelapseFromStartOfRecording;
-                        }
-                    } else {
+                    NamedNodeMap nodeMap = tempNode.getAttributes();
+                    double millis = Double.parseDouble(nodeMap.getNamedItem("millis").getNodeValue());
+                    if (accept(tempNode.getNodeName(), millis)) {
                         doc.addElement(tempNode);
                     }
                 }
             }
         }
     }
+
+    public boolean accept(String name, double millis) {
+        if (name.equals("MOVE") || name.equals("DRAG")) {
+            timelapseFromStartOfRecording = millis;
+            if (timelapseFromStartOfRecording - lastTimeLapse >= minTimeDifference
+                || lastTimeLapse == 0.0) {
+                lastTimeLapse = timelapseFromStartOfRecording;
+                return true;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public void reset() {
+        lastTimeLapse = 0.0;
+    }
 }
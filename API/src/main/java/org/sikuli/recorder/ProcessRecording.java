@@ -1,5 +1,6 @@
 package org.sikuli.recorder;
 
+import org.sikuli.basics.Debug;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -7,6 +8,8 @@ import org.w3c.dom.NodeList;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.*;
+import java.io.*;
 
 public class ProcessRecording {
 
@@ -50,4 +53,63 @@ public class ProcessRecording {
 
         return newDoc;
     }
+
+    /**
+     * Simplifies the raw user inputs file (as written by RecordInputsStream) into a new file
+     * with the same layout, one action at a time (memory does not depend on the size).
+     * A raw file cut off by a crash is processed up to the last complete action.
+     *
+     * @param rawInputs  the raw user inputs XML file
+     * @param simplified the file for the simplified user inputs
+     * @return true if the simplified file was written
+     */
+    public boolean process(File rawInputs, File simplified) {
+        processNode.reset();
+        XMLStreamReader reader = null;
+        XMLStreamWriter writer = null;
+        try (InputStream input = new BufferedInputStream(new FileInputStream(rawInputs));
+             OutputStream output = new BufferedOutputStream(new FileOutputStream(simplified))) {
+            reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("recording");
+            try {
+                int depth = 0;
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    if (depth++ == 0) {
+                        continue; // the root element
+                    }
+                    String millis = reader.getAttributeValue(null, "millis");
+                    if (millis != null && processNode.accept(reader.getLocalName(), Double.parseDouble(millis))) {
+                        writer.writeEmptyElement(reader.getLocalName());
+                        for (int n = 0; n < reader.getAttributeCount(); n++) {
+                            writer.writeAttribute(reader.getAttributeLocalName(n), reader.getAttributeValue(n));
+                        }
+                    }
+                }
+            } catch (XMLStreamException e) {
+                Debug.log(3, "ProcessRecording: %s: incomplete (%s)", rawInputs, e.getMessage());
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            return true;
+        } catch (IOException | XMLStreamException e) {
+            Debug.error("ProcessRecording: %s: %s", rawInputs, e.getMessage());
+            return false;
+        } finally {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+                if (writer != null) {
+                    writer.close();
+                }
+            } catch (XMLStreamException e) {
+            }
+        }
+    }
 }
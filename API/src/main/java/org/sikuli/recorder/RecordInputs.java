@@ -7,4 +7,10 @@ public interface RecordInputs {
     void initDocument();
     void addElement(String name, String key, String value);
     Document getDoc();
+
+    /**
+     * recording has ended (e.g. to close a file)
+     */
+    default void finish() {
+    }
 }
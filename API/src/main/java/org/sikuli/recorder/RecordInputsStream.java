@@ -0,0 +1,119 @@
+package org.sikuli.recorder;
+
+import org.sikuli.basics.Debug;
+import org.sikuli.script.Location;
+import org.sikuli.script.Mouse;
+import org.w3c.dom.Document;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the recorded actions directly to an XML file (same layout as RecordInputsXML),
+ * so memory does not grow with the length of the recording.
+ *
+ * The file is flushed every second: after a crash the actions up to then are in the file
+ * (only the closing tag is missing, which ProcessRecording accepts).
+ */
+public class RecordInputsStream implements RecordInputs {
+
+    private static final long FLUSH_INTERVAL = 1000;
+
+    private final File file;
+    private OutputStream output = null;
+    private XMLStreamWriter writer = null;
+    private ScheduledExecutorService flusher = null;
+    private long startTime;
+
+    public RecordInputsStream(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized void initDocument() {
+        finish();
+        startTime = System.nanoTime();
+        try {
+            output = new BufferedOutputStream(new FileOutputStream(file));
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("recording");
+        } catch (IOException | XMLStreamException e) {
+            Debug.error("RecordInputsStream: %s: %s", file, e.getMessage());
+            writer = null;
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SikuliX-Recorder-Flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Append recorded action to the xml file
+     * @param name - name of the element
+     * @param key - key of the Native Event output
+     * @param value - the full output of the Native Event
+     */
+    public synchronized void addElement(String name, String key, String value) {
+        if (writer == null) return;
+        Location mouse = Mouse.at();
+        try {
+            writer.writeEmptyElement(name);
+            writer.writeAttribute("x", mouse.x + "");
+            writer.writeAttribute("y", mouse.y + "");
+            writer.writeAttribute("key", key);
+            writer.writeAttribute("millis", String.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
+            writer.writeAttribute("nativeEventOutput", value);
+        } catch (XMLStreamException e) {
+            Debug.error("RecordInputsStream: %s: %s", file, e.getMessage());
+        }
+    }
+
+    private synchronized void flush() {
+        if (writer == null) return;
+        try {
+            writer.flush();
+            output.flush();
+        } catch (XMLStreamException | IOException e) {
+            Debug.error("RecordInputsStream: %s: %s", file, e.getMessage());
+        }
+    }
+
+    /**
+     * close the root element and the file
+     */
+    public synchronized void finish() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher = null;
+        }
+        if (writer == null) return;
+        try {
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+            output.close();
+        } catch (XMLStreamException | IOException e) {
+            Debug.error("RecordInputsStream: %s: %s", file, e.getMessage());
+        }
+        writer = null;
+    }
+
+    /**
+     * @return null - the actions are not kept in memory (see getFile())
+     */
+    public Document getDoc() {
+        return null;
+    }
+}
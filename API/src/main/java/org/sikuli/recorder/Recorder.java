@@ -2,7 +2,6 @@ package org.sikuli.recorder;
 
 import org.sikuli.basics.FileManager;
 import org.sikuli.script.support.Commons;
-import org.w3c.dom.Document;
 
 import java.io.File;
 import java.util.Date;
@@ -32,17 +31,18 @@ public enum Recorder {
     private File recordingFolder = new File(Commons.getTempFolder(), "Recorder");
     private int screenshotDelay = 1000;
 
+    private static final String RAW_INPUTS = "sikulixrawinputs.xml";
+    private static final String INPUTS = "sikulixinputs.xml";
+
     Recorder() {
         captureScreenshots = new CaptureScreenshots();
 
-        captureUserInputs = new CaptureUserInputs(new RecordInputsXML());
-
         processRecording = new ProcessRecording(new ProcessNodePauses());
     }
 
     /**
      * Starts capturing screenshots and recording the user's actions<br>
-     * The screenshots are saved in the directory defined below as sikuliximage_TIMESTAMP.png.
+     * The screenshots are saved in the directory defined below as sikuliximage.sxshots (see ScreenshotStream).
      */
     public void startRecording() {
         if (recording) return;
@@ -52,6 +52,7 @@ public enum Recorder {
         saveToFile = new RecorderSaveToFile(folderWithDate);
 
         captureScreenshots.startCapturing(saveToFile, "sikuliximage", screenshotDelay);
+        captureUserInputs = new CaptureUserInputs(new RecordInputsStream(new File(folderWithDate, RAW_INPUTS)));
         captureUserInputs.startRecording();
     }
 
@@ -66,10 +67,9 @@ public enum Recorder {
 
         captureScreenshots.stopCapturing();
 
-        Document rawDoc = captureUserInputs.finalizeRecording();
-        saveToFile.saveXML(rawDoc, "sikulixrawinputs.xml");
-        Document simplifiedDoc = processRecording.process(rawDoc);
-        saveToFile.saveXML(simplifiedDoc, "sikulixinputs.xml");
+        captureUserInputs.finalizeRecording(); // raw inputs are written while recording
+        processRecording.process(new File(saveToFile.getFolder(), RAW_INPUTS),
+            new File(saveToFile.getFolder(), INPUTS));
     }
 
     public boolean setRecordingDirectory(String directory) {
@@ -27,6 +27,10 @@ public class RecorderSaveToFile implements SaveToFile {
     return Commons.asFolder(folder.getPath());
   }
 
+  public File getFolder() {
+    return folderToUse;
+  }
+
   /**
    * Save the Image as .png into folderToUse
    *
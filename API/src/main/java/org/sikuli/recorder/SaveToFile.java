@@ -10,6 +10,8 @@ public interface SaveToFile {
 
     public File createFolder(File folder);
 
+    File getFolder();
+
     String saveImageWithDate(Image img, String baseFileName);
 
     void saveXML(Document doc, String fileName);
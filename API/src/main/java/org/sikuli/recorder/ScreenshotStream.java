@@ -0,0 +1,316 @@
+package org.sikuli.recorder;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.sikuli.basics.Debug;
+import org.sikuli.script.Finder;
+import org.sikuli.script.Image;
+import org.sikuli.script.support.Commons;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores the screenshots of a recording in one file: a keyframe now and then and
+ * for the frames in between only the areas changed since the previous frame
+ * (found the same way as Finder.findChanges does it, but for any pixel change).
+ *
+ * The screenshots are handed over to an encoder thread through a small queue, so
+ * the capture timing does not depend on the encoding time. If the encoder falls
+ * behind, screenshots are dropped (and counted) instead of delaying the capture.
+ *
+ * File layout: the MAGIC string, then per frame
+ * time (long), keyframe (boolean), width, height, number of patches (int),
+ * and per patch x, y, w, h, length (int) followed by the PNG bytes.
+ *
+ * Use ScreenshotStream.open() to get any frame back as image.
+ */
+public class ScreenshotStream {
+
+    public static final String EXTENSION = ".sxshots";
+    private static final String MAGIC = "SXSHOTS1";
+    private static final int QUEUE_SIZE = 4;
+    private static final int KEYFRAME_INTERVAL = 60;
+
+    private static class Shot {
+        final BufferedImage image;
+        final long time;
+
+        Shot(BufferedImage image, long time) {
+            this.image = image;
+            this.time = time;
+        }
+    }
+
+    private static final Shot END = new Shot(null, 0);
+
+    private final File file;
+    private final DataOutputStream out;
+    private final BlockingQueue<Shot> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Thread encoder;
+    private Mat previous = null;
+    private int sinceKeyframe = 0;
+    private int frames = 0;
+    private final AtomicInteger dropped = new AtomicInteger();
+    // set by the encoder when it has ended (also after a failure): nobody takes from the queue anymore
+    private volatile boolean closed = false;
+
+    public ScreenshotStream(File file) throws IOException {
+        Commons.loadOpenCV();
+        this.file = file;
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+        encoder = new Thread(this::encode, "SikuliX-Recorder-Encoder");
+        encoder.setDaemon(true);
+        encoder.start();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * hand over a screenshot to the encoder (does not wait)
+     *
+     * @param image the screenshot
+     * @param time  when it was taken
+     * @return false if dropped, because the encoder is busy
+     */
+    public boolean offer(BufferedImage image, long time) {
+        if (!closed && queue.offer(new Shot(image, time))) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * encode the screenshots still waiting and close the file
+     */
+    public void close() {
+        try {
+            if (!closed && encoder.isAlive() && !queue.offer(END, 30, TimeUnit.SECONDS)) {
+                Debug.error("ScreenshotStream: %s: encoder not responding", file);
+            }
+            encoder.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Debug.log(3, "ScreenshotStream: %s: %d frames (%d dropped)", file, frames, dropped.get());
+    }
+
+    private void encode() {
+        try {
+            while (true) {
+                Shot shot = queue.take();
+                if (shot == END) {
+                    break;
+                }
+                write(shot);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Debug.error("ScreenshotStream: %s: %s", file, e.getMessage());
+        } finally {
+            closed = true;
+            queue.clear();
+            try {
+                out.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private void write(Shot shot) throws IOException {
+        Mat next = Image.makeMat(shot.image);
+        List<Rectangle> patches = null;
+        if (sinceKeyframe < KEYFRAME_INTERVAL) {
+            patches = Finder.findChangedAreas(previous, next);
+        }
+        boolean keyframe = patches == null || isLarge(patches, next);
+        if (keyframe) {
+            patches = new ArrayList<>();
+            patches.add(new Rectangle(0, 0, next.cols(), next.rows()));
+            sinceKeyframe = 0;
+        } else {
+            removeContained(patches);
+            sinceKeyframe++;
+        }
+        out.writeLong(shot.time);
+        out.writeBoolean(keyframe);
+        out.writeInt(next.cols());
+        out.writeInt(next.rows());
+        out.writeInt(patches.size());
+        MatOfByte png = new MatOfByte();
+        for (Rectangle patch : patches) {
+            Imgcodecs.imencode(".png", next.submat(new Rect(patch.x, patch.y, patch.width, patch.height)), png);
+            byte[] bytes = png.toArray();
+            out.writeInt(patch.x);
+            out.writeInt(patch.y);
+            out.writeInt(patch.width);
+            out.writeInt(patch.height);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        previous = next;
+        frames++;
+    }
+
+    // more than half of the screen changed: a keyframe is cheaper to store and to read back
+    private static boolean isLarge(List<Rectangle> patches, Mat image) {
+        double area = 0;
+        for (Rectangle patch : patches) {
+            area += (double) patch.width * patch.height;
+        }
+        return area > image.cols() * image.rows() / 2.0;
+    }
+
+    // the contours of holes in a changed area give rectangles inside other ones
+    private static void removeContained(List<Rectangle> patches) {
+        Iterator<Rectangle> iterator = patches.iterator();
+        while (iterator.hasNext()) {
+            Rectangle patch = iterator.next();
+            for (Rectangle other : patches) {
+                if (other != patch && other.contains(patch)) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * open a stored screenshot stream for reading
+     *
+     * @param file the stream file
+     * @return the reader
+     * @throws IOException if not readable or not a screenshot stream
+     */
+    public static Reader open(File file) throws IOException {
+        return new Reader(file);
+    }
+
+    /**
+     * Gives back any frame of a screenshot stream: the nearest keyframe before
+     * is decoded and the changes up to the frame are applied.
+     * Reading the frames in sequence only applies one frame's changes per frame.
+     */
+    public static class Reader implements Closeable {
+
+        private final RandomAccessFile in;
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Long> times = new ArrayList<>();
+        private final List<Boolean> keyframes = new ArrayList<>();
+        private Mat current = null;
+        private int currentIndex = -1;
+
+        private Reader(File file) throws IOException {
+            Commons.loadOpenCV();
+            in = new RandomAccessFile(file, "r");
+            byte[] magic = new byte[MAGIC.length()];
+            in.readFully(magic);
+            if (!MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))) {
+                in.close();
+                throw new IOException("not a screenshot stream: " + file);
+            }
+            long length = in.length();
+            try {
+                while (in.getFilePointer() < length) {
+                    long offset = in.getFilePointer();
+                    long time = in.readLong();
+                    boolean keyframe = in.readBoolean();
+                    in.skipBytes(8);
+                    int count = in.readInt();
+                    for (int n = 0; n < count; n++) {
+                        in.skipBytes(16);
+                        int size = in.readInt();
+                        in.seek(in.getFilePointer() + size);
+                    }
+                    if (in.getFilePointer() > length) {
+                        break; // last frame not complete
+                    }
+                    offsets.add(offset);
+                    times.add(time);
+                    keyframes.add(keyframe);
+                }
+            } catch (EOFException e) {
+                // last frame not complete
+            }
+        }
+
+        /**
+         * @return number of frames
+         */
+        public int size() {
+            return offsets.size();
+        }
+
+        /**
+         * @param index of the frame
+         * @return when the frame was captured (epoch milliseconds)
+         */
+        public long getTime(int index) {
+            return times.get(index);
+        }
+
+        /**
+         * @param index of the frame
+         * @return the screenshot as it was captured
+         * @throws IOException if the stream cannot be read
+         */
+        public synchronized BufferedImage getFrame(int index) throws IOException {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("frame " + index + " of " + size());
+            }
+            int start = index;
+            while (!keyframes.get(start)) {
+                start--;
+            }
+            if (current == null || currentIndex > index || currentIndex < start) {
+                currentIndex = start - 1;
+            }
+            for (int n = currentIndex + 1; n <= index; n++) {
+                apply(n);
+            }
+            currentIndex = index;
+            return Image.getBufferedImage(current);
+        }
+
+        private void apply(int index) throws IOException {
+            in.seek(offsets.get(index));
+            in.readLong();
+            boolean keyframe = in.readBoolean();
+            in.readInt();
+            in.readInt();
+            int count = in.readInt();
+            for (int n = 0; n < count; n++) {
+                Rect patch = new Rect(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                Mat decoded = Imgcodecs.imdecode(new MatOfByte(bytes), Imgcodecs.IMREAD_UNCHANGED);
+                if (keyframe) {
+                    current = decoded;
+                } else {
+                    decoded.copyTo(current.submat(patch));
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -20,7 +20,9 @@ import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 //import org.apache.http.HttpEntity;
@@ -105,6 +107,11 @@ public class App {
     public boolean close(boolean force) {
       return false;
     }
+
+    @Override
+    public CompletableFuture<OsProcess> onExit() {
+      return CompletableFuture.completedFuture(this);
+    }
   }
 
   private OsProcess process = null;
@@ -187,21 +194,26 @@ public class App {
     return process.getPid() > 0;
   }
 
+  /**
+   * a process, that is not running, will not run again (the App has to be opened again)
+   *
+   * @return true if running and not closing
+   */
   public boolean isRunning() {
-    return isRunning(0);
-  }
-
-  public boolean isRunning(int maxTime) {
     if (isClosing()) {
       return false;
     }
-    do {
-      if (process.isRunning()) {
-        return true;
-      }
-      pause(1);
-    } while (--maxTime > 0);
-    return false;
+    return process.isRunning();
+  }
+
+  /**
+   * @param maxTime not used (use {@link #waitForWindow(double)} to wait)
+   * @return same as {@link #isRunning()}
+   * @deprecated use {@link #isRunning()}
+   */
+  @Deprecated
+  public boolean isRunning(int maxTime) {
+    return isRunning();
   }
 
   public static List<App> allWithWindow() {
@@ -229,6 +241,18 @@ public class App {
   public boolean hasWindows() {
     return windows().size() > 0;
   }
+
+  // the future's value or null, if not done after waitTime seconds (the future is not cancelled)
+  private static <T> T waitFor(Future<T> future, double waitTime) {
+    try {
+      return future.get((long) (waitTime * 1000), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException | ExecutionException | CancellationException e) {
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
   // </editor-fold>
 
   //<editor-fold desc="05 arguments, name, executable, pid">
@@ -366,23 +390,25 @@ public class App {
   //</editor-fold>
 
   // <editor-fold defaultstate="collapsed" desc="23 close">
-  private AtomicBoolean closing = new AtomicBoolean(false);
+  // while closing: completes when the close has finished
+  private AtomicReference<CompletableFuture<Boolean>> closing = new AtomicReference<>(null);
 
   public boolean isClosing() {
-    return closing.get();
+    return closing.get() != null;
   }
 
+  /**
+   * waits until a running close() has finished
+   *
+   * @param waitTime max seconds to wait (at least 1)
+   * @return false if still closing
+   */
   public boolean waitUntilClosed(int waitTime) {
-    if (!isClosing()) {
+    CompletableFuture<Boolean> closed = closing.get();
+    if (closed == null) {
       return true;
     }
-    do {
-      pause(1);
-      if (!isClosing()) {
-        return true;
-      }
-    } while (--waitTime > 0);
-    return false;
+    return waitFor(closed, Math.max(1, waitTime)) != null;
   }
 
   /**
@@ -419,7 +445,8 @@ public class App {
       return false;
     }
 
-    if (closing.compareAndExchange(false, true)) {
+    CompletableFuture<Boolean> closed = new CompletableFuture<>();
+    if (!closing.compareAndSet(null, closed)) {
       log("App.close: already closing: %s", this);
       return false;
     }
@@ -429,23 +456,16 @@ public class App {
       boolean success = process.close(false);
 
       // Close request was successful.
-      // Wait for the app to die
-      if (success) {
-        do {
-          pause(1);
-
-          if (!isRunning()) {
-            log("App.close: Closed gracefully: %s", this);
-            return true;
-          }
-          waitTime--;
-        } while (waitTime > 0);
+      // Wait for the app to die (returns as soon as it has ended)
+      if (success && waitFor(process.onExit(), Math.max(1, waitTime)) != null) {
+        log("App.close: Closed gracefully: %s", this);
+        return true;
       }
 
       log("App.close: Closing app gracefully failed. Trying to close forcefully: %s", this);
       process.close(true);
 
-      if (!isRunning()) {
+      if (waitFor(process.onExit(), 1) != null) {
         log("App.close: Closed forcefully: %s", this);
         return true;
       }
@@ -453,7 +473,8 @@ public class App {
       log("App.close: did not work: %s", this);
       return false;
     } finally {
-      closing.set(false);
+      closing.set(null);
+      closed.complete(true);
     }
 
   }
@@ -468,7 +489,7 @@ public class App {
       return 1;
     }
     focus();
-    RunTime.pause(1);
+    waitForFocus(1);
     if (Commons.runningWindows()) {
       window().type(Key.F4, Key.ALT);
     } else if (Commons.runningMac()) {
@@ -480,10 +501,7 @@ public class App {
     if (waitTime > 0) {
       timeTowait = waitTime;
     }
-    while (isRunning(0) && timeTowait > 0) {
-      timeTowait--;
-    }
-    if (!isValid()) {
+    if (waitFor(process.onExit(), timeTowait) != null) {
       log("App.closeByKey: %s", this);
     } else {
       log("App.closeByKey: did not work: %s", this);
@@ -557,6 +575,16 @@ public class App {
     return !region.isEmpty();
   }
 
+  // until a window of this app has the focus (e.g. before typing), at most waitTime seconds
+  private void waitForFocus(double waitTime) {
+    CompletableFuture<OsProcess> focused = osUtil.onFocus(process);
+    try {
+      waitFor(focused, waitTime);
+    } finally {
+      focused.cancel(false);
+    }
+  }
+
   public Region toFront(Object... args) {
     OsWindow window = null;
     int winNum = 0;
@@ -600,6 +628,26 @@ public class App {
     return osUtil.getWindows(process).stream().map((w) -> asRegion(w.getBounds(), w.getTitle())).collect(Collectors.toList());
   }
 
+  /**
+   * waits until this App has a window (e.g. after open())<br>
+   * returns as soon as the window is there (on Linux with X11 told by the window system, otherwise checked often)
+   *
+   * @param waitTime max seconds to wait
+   * @return the region of the first window, an empty region if there is none after waitTime
+   */
+  public Region waitForWindow(double waitTime) {
+    CompletableFuture<List<OsWindow>> windows = osUtil.onWindows(process);
+    try {
+      List<OsWindow> found = waitFor(windows, waitTime);
+      if (found == null || found.isEmpty()) {
+        return asNullRegion();
+      }
+      return asRegion(found.get(0));
+    } finally {
+      windows.cancel(false);
+    }
+  }
+
   /**
    * evaluates the region currently occupied by the topmost window of this App
    * instance. The region might not be fully visible, not visible at all or
@@ -705,7 +753,7 @@ public class App {
    * @return true on succes, false otherwise
    */
   public boolean minimize() {
-    if (!isRunning(0)) {
+    if (!isRunning()) {
       error("App.minimize: not running: %s", toString());
       return false;
     }
@@ -726,7 +774,7 @@ public class App {
    * @return true on succes, false otherwise
    */
   public boolean maximize() {
-    if (!isRunning(0)) {
+    if (!isRunning()) {
       error("App.minimize: not running: %s", toString());
       return false;
     }
@@ -747,7 +795,7 @@ public class App {
    * @return true on succes, false otherwise
    */
   public boolean restore() {
-    if (!isRunning(0)) {
+    if (!isRunning()) {
       error("App.minimize: not running: %s", toString());
       return false;
     }
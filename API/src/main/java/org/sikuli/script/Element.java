@@ -9,6 +9,7 @@ import org.sikuli.basics.FileManager;
 import org.sikuli.basics.Settings;
 import org.sikuli.script.support.Commons;
 import org.sikuli.script.support.FindFailedDialog;
+import org.sikuli.script.support.FindMetrics;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -38,11 +39,11 @@ public abstract class Element {
     if (!Debug.is(level) || silent) {
       return;
     }
-    String className = Thread.currentThread().getStackTrace()[2].getClassName();
-    String caller = className.substring(className.lastIndexOf(".") + 1);
-    Debug.logx(level, caller + ": " + message, args);
+    Debug.logger(callerWalker.getCallerClass()).log(level, message, args);
   }
 
+  private static final StackWalker callerWalker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
   public Region asRegion() {
     return (Region) this;
   }
@@ -747,11 +748,14 @@ public abstract class Element {
     List<Long> results = new ArrayList<>();
     long startSearch = 0;
     long durationAll = 0;
-    for (int n = 0; n < nTasks; n++) {
-      finders.add(new Finder(this));
-    }
-    ExecutorService executorService = new ThreadPoolExecutor(nTasks, nTasks,
-        0, TimeUnit.MILLISECONDS, new LinkedBlockingDeque<>());
+    Finder baseFinder = new Finder(this); // one capture shared by all finders
+    finders.add(baseFinder);
+    results.add(0L);
+    for (int n = 1; n < nTasks; n++) {
+      finders.add(new Finder(baseFinder));
+      results.add(0L);
+    }
+    ExecutorService executorService = Finder.getFindExecutor();
     List<Callable<Object[]>> callableTasks = new ArrayList<>();
     for (int n = 0; n < nTasks; n++) {
       final Integer nCall = Integer.valueOf(n);
@@ -771,8 +775,10 @@ public abstract class Element {
     }
 
     List<Future<Object[]>> fResults = new ArrayList<>();
+    int maxTimePerScan = (int) (1000.0 / waitScanRate);
     startSearch = Debug.timeNow();
     while (true) {
+      long startScan = Debug.timeNow();
       try {
         fResults = executorService.invokeAll(callableTasks);
       } catch (InterruptedException e) {
@@ -781,7 +787,6 @@ public abstract class Element {
       long maxDuration = 0;
       for (Future result : fResults) {
         try {
-          results.add(0L);
           Object[] current = (Object[]) result.get();
           maxDuration = Math.max((Long) current[1], maxDuration);
           results.set((Integer) current[0], (Long) current[1]);
@@ -795,11 +800,20 @@ public abstract class Element {
       if (maxDuration > 0) {
         break;
       }
-      if (durationAll > ((long) time * 1000)) {
+      if (durationAll >= ((long) time * 1000)) {
         break;
       }
-      for (Finder finder : finders) {
-        finder.newShot();
+      long scanDuration = Debug.timeSince(startScan);
+      if (scanDuration < maxTimePerScan) {
+        try {
+          Thread.sleep(maxTimePerScan - scanDuration);
+        } catch (InterruptedException e) {
+          break;
+        }
+      }
+      baseFinder.newShot();
+      for (Finder finder : finders.subList(1, nTasks)) {
+        finder.newShot(baseFinder);
       }
     }
     nTarget = 0;
@@ -891,6 +905,7 @@ public abstract class Element {
         rf.setFindType(findtype);
         rf.repeat(findTimeout);
         searchTime = rf.getSearchTime();
+        FindMetrics.count(FindMetrics.REPEAT, img, this, rf.getRepeats());
       }
       findTime = Debug.timeSince(findTime);
       if (findtype.equals(FINDTYPE.VANISH)) {
@@ -900,6 +915,7 @@ public abstract class Element {
       Boolean handleFindFailedState;
       if (!finder.hasNext()) {
         findFailed = true;
+        FindMetrics.count(FindMetrics.FINDFAILED, img, this, 1);
         handleFindFailedState = handleFindFailed(target, img); //TODO for Image
         if (FindFailed.isAbort(handleFindFailedState)) {
           throw new FindFailed(String.format("in %s with %s", this, img));
@@ -968,9 +984,11 @@ public abstract class Element {
         lastSeenFinder.find(ptn.similar(score));
         if (lastSeenFinder.hasNext()) {
           log(logLevel, "checkLastSeen: still there");
+          FindMetrics.lastSeen(img, this, true);
           return lastSeenFinder;
         }
         log(logLevel, "checkLastSeen: not there");
+        FindMetrics.lastSeen(img, this, false);
       }
     }
     return new Finder(this);
@@ -1005,6 +1023,7 @@ public abstract class Element {
 
     long searchTime = -1;
     long findTime = -1;
+    int repeats = 0;
 
     public long getSearchTime() {
       return searchTime;
@@ -1014,15 +1033,24 @@ public abstract class Element {
       return findTime;
     }
 
+    /**
+     * @return the number of scans done by the last repeat
+     */
+    public int getRepeats() {
+      return repeats;
+    }
+
     boolean repeat(double timeout) {
       findTimeout = timeout;
       int MaxTimePerScan = (int) (1000.0 / waitScanRate);
       int timeoutMilli = (int) (timeout * 1000);
       long begin_t = Debug.timeNow();
       boolean success = false;
+      repeats = 0;
       do {
         long before_find = Debug.timeNow();
         run();
+        repeats++;
         findTime = Debug.timeSince(before_find);
         if (isSuccessful()) {
           success = true;
@@ -8,12 +8,19 @@ import org.opencv.imgproc.Imgproc;
 import org.sikuli.basics.Debug;
 import org.sikuli.basics.Settings;
 import org.sikuli.script.support.Commons;
+import org.sikuli.script.support.FindMetrics;
 import org.sikuli.script.support.IScreen;
 
 import java.awt.Color;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 
 public class Finder implements Iterator<Match> {
@@ -84,6 +91,18 @@ public class Finder implements Iterator<Match> {
     }
   }
 
+  /**
+   * internal use: a Finder searching in the same base (region, capture) as the given Finder
+   *
+   * @param other the Finder to share the base with
+   */
+  Finder(Finder other) {
+    this();
+    where = other.where;
+    _region = other._region;
+    _findInput.setSource(other._findInput.getBase());
+  }
+
   /**
    * Finder for a Region on a ScreenImage
    *
@@ -100,7 +119,85 @@ public class Finder implements Iterator<Match> {
 
   //<editor-fold defaultstate="collapsed" desc="internal repeating">
   public void newShot() {
-    _findInput.setSource(Image.makeMat(_region.getScreen().capture(_region).getImage()));
+    setNextBase(Image.makeMat(_region.getScreen().capture(_region).getImage()));
+  }
+
+  /**
+   * internal use: take over the current base of the given Finder (no new capture)
+   *
+   * @param other the Finder to share the base with
+   */
+  void newShot(Finder other) {
+    setNextBase(other._findInput.getBase());
+  }
+
+  /**
+   * internal use: continue with the next capture of the same region
+   * (targets not found in the previous shot are only searched in the changed areas)
+   *
+   * @param simg the new capture
+   */
+  public void newShot(ScreenImage simg) {
+    setNextBase(Image.makeMat(simg.getImage()));
+  }
+
+  private Mat previousBase = null;
+  private List<Rect> changedAreas = null;
+  // per image (identity): how it was searched and not found (the target Mat might be made new for each find)
+  private Map<Image, String> notFound = new IdentityHashMap<>();
+  private Map<Image, String> previousNotFound = new IdentityHashMap<>();
+
+  private void setNextBase(Mat base) {
+    previousBase = _findInput.getBase();
+    changedAreas = null;
+    previousNotFound = notFound;
+    notFound = new IdentityHashMap<>();
+    _findInput.setSource(base);
+  }
+
+  // same image with other score, size (resize) or mask: searched as new
+  private static String notFoundKey(Mat target, double score, boolean masked) {
+    return String.format("%s %dx%d%s", score, target.cols(), target.rows(), masked ? " masked" : "");
+  }
+
+  /**
+   * a target not found in the previous shot can only appear in the areas that changed since then
+   *
+   * @return the find result
+   */
+  private FindResult2 runFind() {
+    long start = System.nanoTime();
+    FindResult2 results = runFindChanged();
+    if (FindMetrics.isActive()) {
+      Element inWhat = SX.isNotNull(where) ? where : imgWhere;
+      if (_findInput.isText()) {
+        FindMetrics.ocr(_findInput.getTargetText(), inWhat, System.nanoTime() - start);
+      } else {
+        FindMetrics.match(_image, inWhat, System.nanoTime() - start);
+      }
+    }
+    return results;
+  }
+
+  private FindResult2 runFindChanged() {
+    Mat target = _findInput.getTarget();
+    if (_findInput.isText() || SX.isNull(target) || SX.isNull(_image)) {
+      return Finder2.find(_findInput);
+    }
+    String key = notFoundKey(target, _findInput.getScore(), _findInput.hasMask());
+    FindResult2 results;
+    if (Settings.RepeatSearchChanges && key.equals(previousNotFound.get(_image))) {
+      if (SX.isNull(changedAreas)) {
+        changedAreas = Finder2.findChangedAreas(previousBase, _findInput.getBase());
+      }
+      results = Finder2.findInAreas(_findInput, changedAreas);
+    } else {
+      results = Finder2.find(_findInput);
+    }
+    if (SX.isNull(results) || !results.hasNext()) {
+      notFound.put(_image, key);
+    }
+    return results;
   }
 
   /**
@@ -114,7 +211,7 @@ public class Finder implements Iterator<Match> {
    * internal use: repeat with same Finder
    */
   protected void findRepeat() {
-    _results = Finder2.find(_findInput);
+    _results = runFind();
     currentMatchIndex = 0;
   }
 
@@ -123,12 +220,46 @@ public class Finder implements Iterator<Match> {
    */
   protected void findAllRepeat() {
     Debug timing = Debug.startTimer("Finder.findAll");
-    _results = Finder2.find(_findInput);
+    _results = runFind();
     currentMatchIndex = 0;
     timing.end();
   }
 //</editor-fold>
 
+  //<editor-fold defaultstate="collapsed" desc="find executor">
+  private static ThreadPoolExecutor findExecutor = null;
+
+  /**
+   * the executor shared by all parallel find operations (findAny, findBest, ...)<br>
+   * number of threads: Settings.FindThreads (0 = number of available cores)
+   *
+   * @return the executor
+   */
+  static synchronized ExecutorService getFindExecutor() {
+    int nThreads = Settings.FindThreads > 0 ? Settings.FindThreads : Runtime.getRuntime().availableProcessors();
+    if (findExecutor == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      ThreadFactory threadFactory = runnable -> {
+        Thread thread = new Thread(runnable, "SikuliX-Finder-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      };
+      findExecutor = new ThreadPoolExecutor(nThreads, nThreads, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(), threadFactory);
+      findExecutor.allowCoreThreadTimeOut(true);
+    } else if (findExecutor.getMaximumPoolSize() != nThreads) {
+      if (nThreads > findExecutor.getMaximumPoolSize()) {
+        findExecutor.setMaximumPoolSize(nThreads);
+        findExecutor.setCorePoolSize(nThreads);
+      } else {
+        findExecutor.setCorePoolSize(nThreads);
+        findExecutor.setMaximumPoolSize(nThreads);
+      }
+    }
+    return findExecutor;
+  }
+  //</editor-fold>
+
   //<editor-fold defaultstate="collapsed" desc="find">
 
   /**
@@ -157,6 +288,36 @@ public class Finder implements Iterator<Match> {
     return possibleImageResizeOrCallback(img, 0);
   }
 
+  private boolean isResizeOrCallback(float oneTimeResize) {
+    float factor = oneTimeResize;
+    if (factor == 0 && Settings.AlwaysResize > 0 && Settings.AlwaysResize != 1) {
+      factor = Settings.AlwaysResize;
+    }
+    return (factor > 0 && factor != 1) || Settings.ImageCallback != null;
+  }
+
+  /**
+   * set the image as target of the next find: the target Mat with mask and statistics is
+   * taken from or remembered in the image, as long as it is not modified for this find
+   * (resize, callback, mask given by the pattern)
+   *
+   * @param mask the mask given by the pattern (null: none - a mask of an earlier target is dropped)
+   */
+  private void setTarget(Image img, float oneTimeResize, Mat mask) {
+    _findInput.setMask(mask);
+    if (isResizeOrCallback(oneTimeResize) || _findInput.hasGivenMask()) {
+      _findInput.setTarget(possibleImageResizeOrCallback(img, oneTimeResize));
+      return;
+    }
+    FindTarget findTarget = img.getFindTarget();
+    if (findTarget != null) {
+      _findInput.setTarget(findTarget);
+    } else {
+      _findInput.setTarget(possibleImageResizeOrCallback(img, oneTimeResize));
+      _findInput.setTargetImage(img);
+    }
+  }
+
   private Mat possibleImageResizeOrCallback(Image img, float oneTimeResize) {
     float factor = oneTimeResize;
     if (factor == 0 && Settings.AlwaysResize > 0 && Settings.AlwaysResize != 1) {
@@ -193,14 +354,11 @@ public class Finder implements Iterator<Match> {
     }
     if (aPtn.isValid()) {
       _pattern = aPtn;
-      if (_pattern.hasMask()) {
-        _findInput.setMask(_pattern.getMask());
-      }
       _image = aPtn.getImage();
-      _findInput.setTarget(possibleImageResizeOrCallback(_image, aPtn.getResize()));
+      setTarget(_image, aPtn.getResize(), _pattern.hasMask() ? _pattern.getMask() : null);
       _findInput.setSimilarity(aPtn.getSimilar());
       _findInput.setIsPattern();
-      _results = Finder2.find(_findInput);
+      _results = runFind();
       currentMatchIndex = 0;
       return aPtn.getFilename();
     } else {
@@ -222,9 +380,9 @@ public class Finder implements Iterator<Match> {
     }
     if (img.isValid()) {
       _image = img;
-      _findInput.setTarget(possibleImageResizeOrCallback(img));
+      setTarget(img, 0, null);
       _findInput.setSimilarity(Settings.MinSimilarity);
-      _results = Finder2.find(_findInput);
+      _results = runFind();
       currentMatchIndex = 0;
       return img.getFilename();
     } else if (img.isUseable()) {
@@ -253,6 +411,7 @@ public class Finder implements Iterator<Match> {
     if (SX.isNull(changedImage)) {
       return null;
     }
+    _findInput.setMask(null);
     if (changedImage instanceof String) {
       Image img = Image.from((String) changedImage);
       _findInput.setTarget(possibleImageResizeOrCallback(img));
@@ -260,7 +419,27 @@ public class Finder implements Iterator<Match> {
       Image img = new Image((ScreenImage) changedImage);
       _findInput.setTarget(possibleImageResizeOrCallback(img));
     }
-    return Finder2.findChanges(_findInput);
+    // the changes are on the screen of the Finder's region (if any)
+    return Finder2.findChanges(_findInput, SX.isNull(where) ? null : where.getScreen());
+  }
+
+  /**
+   * the areas, where two images differ in any pixel (as findChanges, but without thresholds)
+   *
+   * @param previous image
+   * @param next     image of same size and type
+   * @return the changed areas (empty: no change) or null, if not comparable
+   */
+  public static List<Rectangle> findChangedAreas(Mat previous, Mat next) {
+    List<Rect> areas = Finder2.findChangedAreas(previous, next);
+    if (areas == null) {
+      return null;
+    }
+    List<Rectangle> changedAreas = new ArrayList<>();
+    for (Rect area : areas) {
+      changedAreas.add(new Rectangle(area.x, area.y, area.width, area.height));
+    }
+    return changedAreas;
   }
   //</editor-fold>
 
@@ -304,15 +483,12 @@ public class Finder implements Iterator<Match> {
     if (aPtn.isValid()) {
       _pattern = aPtn;
       _image = aPtn.getImage();
-      _findInput.setTarget(possibleImageResizeOrCallback(_image, aPtn.getResize()));
+      setTarget(_image, aPtn.getResize(), _pattern.hasMask() ? _pattern.getMask() : null);
       _findInput.setSimilarity(aPtn.getSimilar());
       _findInput.setIsPattern();
       _findInput.setFindAll();
-      if (_pattern.hasMask()) {
-        _findInput.setMask(_pattern.getMask());
-      }
       Debug timing = Debug.startTimer("Finder.findAll");
-      _results = Finder2.find(_findInput);
+      _results = runFind();
       currentMatchIndex = 0;
       timing.end();
       return aPtn.getFilename();
@@ -335,11 +511,11 @@ public class Finder implements Iterator<Match> {
     }
     if (img.isValid()) {
       _image = img;
-      _findInput.setTarget(possibleImageResizeOrCallback(img));
+      setTarget(img, 0, null);
       _findInput.setSimilarity(Settings.MinSimilarity);
       _findInput.setFindAll();
       Debug timing = Debug.startTimer("Finder.findAll");
-      _results = Finder2.find(_findInput);
+      _results = runFind();
       currentMatchIndex = 0;
       timing.end();
       return img.getFilename();
@@ -365,7 +541,7 @@ public class Finder implements Iterator<Match> {
     }
     _findInput.setTargetText(text);
     _findInput.setWhere(where);
-    _results = Finder2.find(_findInput);
+    _results = runFind();
     currentMatchIndex = 0;
     return text;
   }
@@ -639,7 +815,7 @@ public class Finder implements Iterator<Match> {
     }
 
     private final float resizeMinFactor = 1.5f;
-    private final float[] resizeLevels = new float[]{1f, 0.4f};
+    private final float[] resizeLevels = new float[]{1f, 0.5f, 0.25f};
     private boolean isCheckLastSeen = false;
     private static final double downSimDiff = 0.15;
 
@@ -683,80 +859,19 @@ public class Finder implements Iterator<Match> {
       FindInput2 findInput = fInput;
       log.log("doFindImage: start %s", findInput);
       mBase = findInput.getBase();
-      boolean success = false;
       long begin_lap = 0;
       long begin_find = new Date().getTime();
       Core.MinMaxLocResult mMinMax = null;
 
-      double rfactor = 0;
-      boolean downSizeFound = false;
-      double downSizeScore = -1;
-      double downSizeWantedScore = 0;
-      Mat findWhere = Image.getNewMat();
-      Mat findWhat = Image.getNewMat();
-
-      boolean trueOrFalse = findInput.shouldSearchDownsized(resizeMinFactor);
-      //TODO search downsized?
-      trueOrFalse = false;
-      if (trueOrFalse) {
+      if (Settings.SearchDownsized && findInput.shouldSearchDownsized(resizeMinFactor)
+          && !mBase.size().equals(findInput.getTarget().size())) {
         // ************************************************* search in downsized
-        begin_lap = new Date().getTime();
-        double imgFactor = findInput.getResizeFactor();
-        Size sizeBase, sizePattern;
-        mResult = null;
-        for (double factor : resizeLevels) {
-          rfactor = factor * imgFactor;
-          sizeBase = new Size(this.mBase.cols() / rfactor, this.mBase.rows() / rfactor);
-          sizePattern = new Size(findInput.getTarget().cols() / rfactor, findInput.getTarget().rows() / rfactor);
-          Imgproc.resize(this.mBase, findWhere, sizeBase, 0, 0, Imgproc.INTER_AREA);
-          Imgproc.resize(findInput.getTarget(), findWhat, sizePattern, 0, 0, Imgproc.INTER_AREA);
-          mResult = doFindMatch(findWhat, findWhere, findInput);
-          mMinMax = Core.minMaxLoc(mResult);
-          downSizeWantedScore = ((int) ((findInput.getScore() - downSimDiff) * 100)) / 100.0;
-          downSizeScore = mMinMax.maxVal;
-          if (downSizeScore > downSizeWantedScore) {
-            downSizeFound = true;
-            break;
-          }
-        }
-        log.log("downSizeFound: %s", downSizeFound);
-        log.log("doFindImage: down: %%%.2f %d msec", 100 * mMinMax.maxVal, new Date().getTime() - begin_lap);
-      }
-      findWhere = this.mBase;
-      trueOrFalse = !findInput.isFindAll() && downSizeFound;
-      if (trueOrFalse) {
-        // ************************************* check after downsized success
-        if (findWhere.size().equals(findInput.getTarget().size())) {
-          // trust downsized mResult, if images have same size
-          return new FindResult2(mResult, findInput);
-        } else {
-          int maxLocX = (int) (mMinMax.maxLoc.x * rfactor);
-          int maxLocY = (int) (mMinMax.maxLoc.y * rfactor);
-          begin_lap = new Date().getTime();
-          int margin = ((int) findInput.getResizeFactor()) + 1;
-          Rectangle rSub = new Rectangle(Math.max(0, maxLocX - margin), Math.max(0, maxLocY - margin),
-              Math.min(findInput.getTarget().width() + 2 * margin, findWhere.width()),
-              Math.min(findInput.getTarget().height() + 2 * margin, findWhere.height()));
-          Rectangle rWhere = new Rectangle(0, 0, findWhere.cols(), findWhere.rows());
-          Rectangle rSubNew = rWhere.intersection(rSub);
-          Rect rectSub = new Rect(rSubNew.x, rSubNew.y, rSubNew.width, rSubNew.height);
-          mResult = doFindMatch(findInput.getTarget(), findWhere.submat(rectSub), findInput);
-          mMinMax = Core.minMaxLoc(mResult);
-          double maxVal = mMinMax.maxVal;
-          double wantedScore = findInput.getScore();
-          if (maxVal > wantedScore) {
-            findResult = new FindResult2(mResult, findInput, new int[]{rectSub.x, rectSub.y});
-          }
-          if (SX.isNotNull(findResult)) {
-            log.log("doFindImage after down: %%%.2f(?%%%.2f) %d msec",
-                maxVal * 100, wantedScore * 100, new Date().getTime() - begin_lap);
-          }
-        }
+        findResult = doFindDownsized(findInput);
       }
-      // ************************************** search in original
-      if (downSizeScore < 0) {
+      if (SX.isNull(findResult)) {
+        // ************************************** search in original
         begin_lap = new Date().getTime();
-        mResult = doFindMatch(findInput.getTarget(), findWhere, findInput);
+        mResult = doFindMatch(findInput.getTarget(), mBase, findInput);
         mMinMax = Core.minMaxLoc(mResult);
         if (!isCheckLastSeen) {
           log.log("doFindImage: in original: %%%.4f (?%.0f) %d msec %s",
@@ -771,13 +886,262 @@ public class Finder implements Iterator<Match> {
       return findResult;
     }
 
+    /**
+     * search only in the given areas of the base, each grown by the target size
+     * (a full search is done, if the areas are not known or cover most of the base)
+     *
+     * @param findInput the find setup
+     * @param areas     the areas to search in (empty: nothing to search)
+     * @return the match(es) or null
+     */
+    protected static FindResult2 findInAreas(FindInput2 findInput, List<Rect> areas) {
+      if (SX.isNull(areas)) {
+        return find(findInput);
+      }
+      if (areas.isEmpty()) {
+        Log.log("findInAreas: no changes");
+        return null;
+      }
+      findInput.setAttributes();
+      if (!findInput.isValid()) {
+        return null;
+      }
+      Mat base = findInput.getBase();
+      Mat target = findInput.getTarget();
+      int targetW = target.width();
+      int targetH = target.height();
+      List<Rect> rects = new ArrayList<>();
+      double searchArea = 0;
+      for (Rect area : areas) {
+        int x = Math.max(0, area.x - targetW);
+        int y = Math.max(0, area.y - targetH);
+        int w = Math.min(base.width(), area.x + area.width + targetW) - x;
+        int h = Math.min(base.height(), area.y + area.height + targetH) - y;
+        if (w < targetW || h < targetH) {
+          continue;
+        }
+        rects.add(new Rect(x, y, w, h));
+        searchArea += w * h;
+      }
+      if (searchArea > base.size().area() / 2) {
+        return find(findInput);
+      }
+      long begin_find = new Date().getTime();
+      Finder2 finder2 = new Finder2();
+      finder2.fInput = findInput;
+      List<Match> matches = new ArrayList<>();
+      for (Rect rect : rects) {
+        Mat mResult = finder2.doFindMatch(target, base.submat(rect), findInput);
+        FindResult2 areaResult = new FindResult2(mResult, findInput, new int[]{rect.x, rect.y});
+        while (areaResult.hasNext()) {
+          Match match = areaResult.next();
+          if (!finder2.isAlreadyConfirmed(match, matches)) {
+            matches.add(match);
+          }
+          if (!findInput.isFindAll()) {
+            break;
+          }
+        }
+      }
+      Log.log("findInAreas: %d areas: %d matches %d msec", rects.size(), matches.size(),
+          new Date().getTime() - begin_find);
+      if (matches.isEmpty()) {
+        return null;
+      }
+      matches.sort((m1, m2) -> Double.compare(m2.getScore(), m1.getScore()));
+      if (!findInput.isFindAll()) {
+        matches = matches.subList(0, 1);
+      }
+      return new FindResult2(new ArrayList<>(matches), findInput);
+    }
+
+    private static final int MAX_DOWN_CANDIDATES = 100;
+
+    /**
+     * coarse-to-fine search: every peak above a lowered score in a downsized base is a candidate,
+     * that is confirmed with a full resolution match restricted to a small region around it
+     * (coarsest level first, the next level only if nothing is confirmed)
+     *
+     * @param findInput the find setup
+     * @return the confirmed match(es) (find: the best) or null (caller should search in original)
+     */
+    private FindResult2 doFindDownsized(FindInput2 findInput) {
+      long begin_lap = new Date().getTime();
+      Mat target = findInput.getTarget();
+      double imgFactor = findInput.getResizeFactor();
+      double wantedScore = findInput.getScore();
+      double downSizeWantedScore = ((int) ((wantedScore - downSimDiff) * 100)) / 100.0;
+      Mat findWhere = Image.getNewMat();
+      Mat findWhat = Image.getNewMat();
+      for (double factor : resizeLevels) {
+        double rfactor = factor * imgFactor;
+        if (rfactor < resizeMinFactor) {
+          continue;
+        }
+        Size sizeBase = new Size(mBase.cols() / rfactor, mBase.rows() / rfactor);
+        Size sizePattern = new Size(target.cols() / rfactor, target.rows() / rfactor);
+        if (sizePattern.width < 1 || sizePattern.height < 1) {
+          continue;
+        }
+        Imgproc.resize(mBase, findWhere, sizeBase, 0, 0, Imgproc.INTER_AREA);
+        Imgproc.resize(target, findWhat, sizePattern, 0, 0, Imgproc.INTER_AREA);
+        Mat mDownResult = doFindMatch(findWhat, findWhere, findInput);
+        List<Peak> candidates = findPeaks(mDownResult, downSizeWantedScore,
+            (int) sizePattern.width, (int) sizePattern.height);
+        if (SX.isNull(candidates) || candidates.size() > MAX_DOWN_CANDIDATES) {
+          Log.log("doFindImage: down(%.1f): too many candidates %d msec", rfactor, new Date().getTime() - begin_lap);
+          return null;
+        }
+        Log.log("doFindImage: down(%.1f): %d candidates %d msec",
+            rfactor, candidates.size(), new Date().getTime() - begin_lap);
+        List<Match> matches = new ArrayList<>();
+        int margin = ((int) rfactor) + 1;
+        for (Peak candidate : candidates) {
+          Match match = confirmCandidate(new Point(candidate.x, candidate.y), rfactor, margin, findInput);
+          if (SX.isNotNull(match) && !isAlreadyConfirmed(match, matches)) {
+            matches.add(match);
+          }
+        }
+        if (!matches.isEmpty()) {
+          matches.sort((m1, m2) -> Double.compare(m2.getScore(), m1.getScore()));
+          if (!findInput.isFindAll()) {
+            matches = new ArrayList<>(matches.subList(0, 1));
+          }
+          Log.log("doFindImage: after down: %d confirmed (%%%.2f) %d msec",
+              matches.size(), matches.get(0).getScore() * 100, new Date().getTime() - begin_lap);
+          return new FindResult2(matches, findInput);
+        }
+      }
+      Log.log("doFindImage: down: not confirmed %d msec", new Date().getTime() - begin_lap);
+      return null;
+    }
+
+    private Match confirmCandidate(Point candidate, double rfactor, int margin, FindInput2 findInput) {
+      Mat target = findInput.getTarget();
+      int subW = Math.min(target.width() + 2 * margin, mBase.width());
+      int subH = Math.min(target.height() + 2 * margin, mBase.height());
+      int subX = Math.max(0, Math.min((int) (candidate.x * rfactor) - margin, mBase.width() - subW));
+      int subY = Math.max(0, Math.min((int) (candidate.y * rfactor) - margin, mBase.height() - subH));
+      Rect rectSub = new Rect(subX, subY, subW, subH);
+      Mat mSubResult = doFindMatch(target, mBase.submat(rectSub), findInput);
+      Core.MinMaxLocResult minMax = Core.minMaxLoc(mSubResult);
+      if (minMax.maxVal > findInput.getScore()) {
+        return new Match((int) minMax.maxLoc.x + subX, (int) minMax.maxLoc.y + subY,
+            target.width(), target.height(), minMax.maxVal, null);
+      }
+      return null;
+    }
+
+    static class Peak {
+      final int x;
+      final int y;
+      final double score;
+
+      Peak(int x, int y, double score) {
+        this.x = x;
+        this.y = y;
+        this.score = score;
+      }
+    }
+
+    private static final int MAX_PEAKS = 50000;
+
+    /**
+     * all local maxima of a match result above the score in one pass, best first,
+     * without those overlapping a better one more than Settings.FindAllMaxOverlap (intersection over union)
+     *
+     * @param mResult result of matchTemplate (higher is better)
+     * @param score   minimum score
+     * @param targetW width of the target
+     * @param targetH height of the target
+     * @return the peaks or null, if there are too many to be sorted out this way (e.g. plain areas)
+     */
+    static List<Peak> findPeaks(Mat mResult, double score, int targetW, int targetH) {
+      Mat mMax = Image.getNewMat();
+      Size kernel = new Size(Math.max(3, (targetW / 2) | 1), Math.max(3, (targetH / 2) | 1));
+      Imgproc.dilate(mResult, mMax, Imgproc.getStructuringElement(Imgproc.MORPH_RECT, kernel));
+      Mat mPeaks = Image.getNewMat();
+      Core.compare(mResult, mMax, mPeaks, Core.CMP_GE);
+      Mat mAbove = Image.getNewMat();
+      Imgproc.threshold(mResult, mAbove, score, 255, Imgproc.THRESH_BINARY);
+      mAbove.convertTo(mAbove, CvType.CV_8U);
+      Core.bitwise_and(mPeaks, mAbove, mPeaks);
+      int count = Core.countNonZero(mPeaks);
+      List<Peak> peaks = new ArrayList<>();
+      if (count == 0) {
+        return peaks;
+      }
+      if (count > MAX_PEAKS) {
+        return null;
+      }
+      Mat mPoints = Image.getNewMat();
+      Core.findNonZero(mPeaks, mPoints);
+      int[] points = new int[count * 2];
+      mPoints.get(0, 0, points);
+      Mat mScores = mResult.isContinuous() ? mResult : mResult.clone();
+      float[] scores = new float[(int) mScores.total()];
+      mScores.get(0, 0, scores);
+      int width = mResult.width();
+      for (int n = 0; n < count; n++) {
+        int x = points[2 * n];
+        int y = points[2 * n + 1];
+        peaks.add(new Peak(x, y, scores[y * width + x]));
+      }
+      peaks.sort((p1, p2) -> Double.compare(p2.score, p1.score));
+      return suppressOverlaps(peaks, targetW, targetH);
+    }
+
+    // greedy non-maximum suppression: all rectangles have the target size,
+    // so only kept peaks in the neighbouring grid cells can overlap
+    private static List<Peak> suppressOverlaps(List<Peak> peaks, int targetW, int targetH) {
+      double maxOverlap = Settings.FindAllMaxOverlap;
+      double area = (double) targetW * targetH;
+      Map<Long, List<Peak>> cells = new HashMap<>();
+      List<Peak> kept = new ArrayList<>();
+      for (Peak peak : peaks) {
+        long cellX = peak.x / targetW;
+        long cellY = peak.y / targetH;
+        boolean overlaps = false;
+        for (long cx = cellX - 1; cx <= cellX + 1 && !overlaps; cx++) {
+          for (long cy = cellY - 1; cy <= cellY + 1 && !overlaps; cy++) {
+            for (Peak other : cells.getOrDefault((cx << 32) + cy, Collections.emptyList())) {
+              int overlapW = targetW - Math.abs(peak.x - other.x);
+              int overlapH = targetH - Math.abs(peak.y - other.y);
+              if (overlapW > 0 && overlapH > 0) {
+                double intersection = (double) overlapW * overlapH;
+                if (intersection / (2 * area - intersection) > maxOverlap) {
+                  overlaps = true;
+                  break;
+                }
+              }
+            }
+          }
+        }
+        if (!overlaps) {
+          kept.add(peak);
+          cells.computeIfAbsent((cellX << 32) + cellY, key -> new ArrayList<>()).add(peak);
+        }
+      }
+      return kept;
+    }
+
+    private boolean isAlreadyConfirmed(Match match, List<Match> matches) {
+      for (Match confirmed : matches) {
+        if (Math.abs(confirmed.x - match.x) < match.w / 2 && Math.abs(confirmed.y - match.y) < match.h / 2) {
+          return true;
+        }
+      }
+      return false;
+    }
+
     private Mat doFindMatch(Mat what, Mat where, FindInput2 findInput) {
       Mat mResult = Image.getNewMat();
       if (what.empty()) {
         log.error("doFindMatch: image conversion to cvMat did not work");
       } else {
         Mat mWhere = where;
-        if (findInput.isGray()) {
+        if (findInput.isGray() && where.channels() > 1) {
+          mWhere = Image.getNewMat();
           Imgproc.cvtColor(where, mWhere, Imgproc.COLOR_BGR2GRAY);
         }
         if (!findInput.isPlainColor()) {
@@ -791,6 +1155,8 @@ public class Finder implements Iterator<Match> {
           Mat wherePlain = mWhere;
           Mat whatPlain = what;
           if (findInput.isBlack()) {
+            wherePlain = Image.getNewMat();
+            whatPlain = Image.getNewMat();
             Core.bitwise_not(mWhere, wherePlain);
             Core.bitwise_not(what, whatPlain);
           }
@@ -823,6 +1189,7 @@ public class Finder implements Iterator<Match> {
       } else {
         text = text.trim();
       }
+      Map<Match, List<Match>> linesWithWords = null;
       if (textLevel == OCR.PAGE_ITERATOR_LEVEL_LINE) {
         wordsFound = OCR.readLines(bimg);
       } else if (textLevel == OCR.PAGE_ITERATOR_LEVEL_WORD) {
@@ -836,7 +1203,17 @@ public class Finder implements Iterator<Match> {
             pattern = java.util.regex.Pattern.compile(textSplit[0] + ".*?" + textSplit[2]);
           }
         }
-        wordsFound = OCR.readLines(bimg);
+        if (Settings.OcrTextSearchSinglePass) {
+          // lines and their words from one OCR pass
+          linesWithWords = new IdentityHashMap<>();
+          wordsFound = new ArrayList<>();
+          for (TextRecognizer.TextLine line : OCR.readLinesWithWords(bimg)) {
+            linesWithWords.put(line.line, line.words);
+            wordsFound.add(line.line);
+          }
+        } else {
+          wordsFound = OCR.readLines(bimg);
+        }
       }
       timer = new Date().getTime() - timer;
       List<Match> wordsMatch = new ArrayList<>();
@@ -858,19 +1235,27 @@ public class Finder implements Iterator<Match> {
             continue;
           }
           Rectangle wordOrLine = match.getRect();
-          List<Match> wordsInLine;
           if (globalSearch) {
-            BufferedImage bLine = Image.createSubimage(bimg, wordOrLine);
-            wordsInLine = OCR.readWords(bLine);
+            List<Match> wordsInLine;
+            if (SX.isNotNull(linesWithWords)) {
+              wordsInLine = linesWithWords.get(match);
+            } else {
+              // second OCR pass on the line
+              wordsInLine = new ArrayList<>();
+              BufferedImage bLine = Image.createSubimage(bimg, wordOrLine);
+              for (Match wordInLine : OCR.readWords(bLine)) {
+                Rectangle rword = new Rectangle(wordInLine.getRect());
+                rword.x += wordOrLine.x;
+                rword.y += wordOrLine.y;
+                wordsInLine.add(new Match(rword, wordInLine.getScore(), wordInLine.getText()));
+              }
+            }
             if (singleWord) {
               for (Match wordInLine : wordsInLine) {
                 if (!isTextContained(wordInLine.getText().toLowerCase(), text.toLowerCase(), null)) {
                   continue;
                 }
-                Rectangle rword = new Rectangle(wordInLine.getRect());
-                rword.x += wordOrLine.x;
-                rword.y += wordOrLine.y;
-                wordsMatch.add(new Match(rword, wordInLine.getScore(), wordInLine.getText(), where));
+                wordsMatch.add(new Match(wordInLine.getRect(), wordInLine.getScore(), wordInLine.getText(), where));
               }
             } else {
               int startText = -1;
@@ -895,8 +1280,6 @@ public class Finder implements Iterator<Match> {
               if (startText > -1 && endText > -1) {
                 Rectangle rword = (new Rectangle(wordsInLine.get(startText).getRect())).
                     union(new Rectangle(wordsInLine.get(endText).getRect()));
-                rword.x += wordOrLine.x;
-                rword.y += wordOrLine.y;
                 double score = (wordsInLine.get(startText).getScore() + wordsInLine.get(startText).getScore()) / 2;
                 String foundText = wordsInLine.get(startText).getText() + " ... " + wordsInLine.get(endText);
                 wordsMatch.add(new Match(rword, score, foundText, where));
@@ -943,38 +1326,73 @@ public class Finder implements Iterator<Match> {
       return mat.type() == colored || mat.type() == transparent;
     }
 
-    public static List<Region> findChanges(FindInput2 findInput) {
+    public static List<Region> findChanges(FindInput2 findInput, IScreen screen) {
       findInput.setAttributes();
       Mat previousGray = Image.getNewMat();
       Mat nextGray = Image.getNewMat();
       Mat mDiffAbs = Image.getNewMat();
-      Mat mDiffTresh = Image.getNewMat();
 
       Imgproc.cvtColor(findInput.getBase(), previousGray, toGray);
       Imgproc.cvtColor(findInput.getTarget(), nextGray, toGray);
       Core.absdiff(previousGray, nextGray, mDiffAbs);
-      Imgproc.threshold(mDiffAbs, mDiffTresh, PIXEL_DIFF_THRESHOLD, 0.0, Imgproc.THRESH_TOZERO);
+      return contoursToRectangle(getChangedContours(mDiffAbs, PIXEL_DIFF_THRESHOLD, IMAGE_DIFF_THRESHOLD), screen);
+    }
+
+    /**
+     * the areas, where the next image differs from the previous one in any pixel
+     *
+     * @param previous image
+     * @param next     image of same size and type
+     * @return the changed areas (empty: no change) or null, if not comparable
+     */
+    protected static List<Rect> findChangedAreas(Mat previous, Mat next) {
+      if (SX.isNull(previous) || SX.isNull(next) || previous.empty()
+          || !previous.size().equals(next.size()) || previous.type() != next.type()) {
+        return null;
+      }
+      Mat mDiffAbs = Image.getNewMat();
+      Core.absdiff(previous, next, mDiffAbs);
+      if (mDiffAbs.channels() > 1) {
+        List<Mat> channels = new ArrayList<>();
+        Core.split(mDiffAbs, channels);
+        mDiffAbs = channels.get(0);
+        for (int n = 1; n < channels.size(); n++) {
+          Core.max(mDiffAbs, channels.get(n), mDiffAbs);
+        }
+      }
+      List<Rect> areas = new ArrayList<>();
+      for (MatOfPoint contour : getChangedContours(mDiffAbs, 0, 0)) {
+        areas.add(Imgproc.boundingRect(contour));
+      }
+      return areas;
+    }
+
+    private static List<MatOfPoint> getChangedContours(Mat mDiffAbs, int pixelDiff, int imageDiff) {
+      Mat mDiffTresh = Image.getNewMat();
+      Imgproc.threshold(mDiffAbs, mDiffTresh, pixelDiff, 0.0, Imgproc.THRESH_TOZERO);
 
-      List<Region> rectangles = new ArrayList<>();
-      if (Core.countNonZero(mDiffTresh) > IMAGE_DIFF_THRESHOLD) {
-        Imgproc.threshold(mDiffAbs, mDiffAbs, PIXEL_DIFF_THRESHOLD, 255, Imgproc.THRESH_BINARY);
+      List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
+      if (Core.countNonZero(mDiffTresh) > imageDiff) {
+        Imgproc.threshold(mDiffAbs, mDiffAbs, pixelDiff, 255, Imgproc.THRESH_BINARY);
         Imgproc.dilate(mDiffAbs, mDiffAbs, Image.getNewMat());
         Mat se = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(5, 5));
         Imgproc.morphologyEx(mDiffAbs, mDiffAbs, Imgproc.MORPH_CLOSE, se);
 
-        List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
         Mat mHierarchy = Image.getNewMat();
         Imgproc.findContours(mDiffAbs, contours, mHierarchy, Imgproc.RETR_LIST, Imgproc.CHAIN_APPROX_SIMPLE);
-        rectangles = contoursToRectangle(contours);
 
         //Core.subtract(mDiffAbs, mDiffAbs, mChanges);
         //Imgproc.drawContours(mChanges, contours, -1, new Scalar(255));
         //logShow(mDiffAbs);
       }
-      return rectangles;
+      return contours;
     }
 
     public static List<Region> contoursToRectangle(List<MatOfPoint> contours) {
+      return contoursToRectangle(contours, null);
+    }
+
+    public static List<Region> contoursToRectangle(List<MatOfPoint> contours, IScreen screen) {
       List<Region> rects = new ArrayList<>();
       for (MatOfPoint contour : contours) {
         //log.trace("*** new contour");
@@ -992,7 +1410,7 @@ public class Finder implements Iterator<Match> {
           if (y < y1) y1 = y;
           if (y > y2) y2 = y;
         }
-        Region rect = new Region(x1, y1, x2 - x1, y2 - y1);
+        Region rect = new Region(x1, y1, x2 - x1, y2 - y1, screen);
         rects.add(rect);
       }
       return rects;
@@ -1066,6 +1484,31 @@ public class Finder implements Iterator<Match> {
     //</editor-fold>
   }
 
+  /**
+   * INTERNAL: a target Mat prepared for searching (mask, statistics), cached with its Image
+   */
+  static class FindTarget {
+    private Mat target;
+    private Mat targetBGR;
+    private Mat mask;
+    private boolean plainColor;
+    private boolean blackColor;
+    private boolean whiteColor;
+    private boolean grayColor;
+    private double resizeFactor;
+    private int[] meanColor;
+    private double targetStdDev;
+    private double targetMean;
+
+    long getSize() {
+      long size = target.total() * target.elemSize();
+      if (targetBGR != target) {
+        size += targetBGR.total() * targetBGR.elemSize();
+      }
+      return size + mask.total() * mask.elemSize();
+    }
+  }
+
   private static class FindInput2 {
 
     static {
@@ -1082,8 +1525,18 @@ public class Finder implements Iterator<Match> {
       return mask;
     }
 
+    /**
+     * @param mask the mask given with the target (null: none - the next target brings its own, if any)
+     */
     protected void setMask(Mat mask) {
-      this.mask = mask;
+      givenMask = mask != null;
+      this.mask = givenMask ? mask : new Mat();
+    }
+
+    private boolean givenMask = false;
+
+    protected boolean hasGivenMask() {
+      return givenMask;
     }
 
     private Mat targetBGR = new Mat();
@@ -1121,6 +1574,37 @@ public class Finder implements Iterator<Match> {
 
     public void setTarget(Mat target) {
       this.target = target;
+      resetAttributes();
+    }
+
+    private FindTarget findTarget = null;
+    private Image targetImage = null;
+    private boolean hasAttributes = false;
+
+    public void setTarget(FindTarget findTarget) {
+      setTarget(findTarget.target);
+      this.findTarget = findTarget;
+    }
+
+    /**
+     * the prepared target will be remembered in the given image
+     *
+     * @param image the target image
+     */
+    public void setTargetImage(Image image) {
+      targetImage = image;
+    }
+
+    private void resetAttributes() {
+      findTarget = null;
+      targetImage = null;
+      hasAttributes = false;
+      grayColor = false;
+      whiteColor = false;
+      targetBGR = new Mat();
+      if (!givenMask) {
+        mask = new Mat();
+      }
     }
 
     public Mat getTarget() {
@@ -1225,7 +1709,7 @@ public class Finder implements Iterator<Match> {
     }
 
     public boolean shouldSearchDownsized(float resizeMinFactor) {
-      return !hasMask() && !isExact() && !isFindAll() && getResizeFactor() > resizeMinFactor;
+      return !hasMask() && !isExact() && !isPlainColor() && getResizeFactor() > resizeMinFactor;
     }
 
     private double scoreMaxDiff = 0.05;
@@ -1289,7 +1773,21 @@ public class Finder implements Iterator<Match> {
     double targetMean = -1;
 
     public void setAttributes() {
-      if (targetTypeText) {
+      if (targetTypeText || hasAttributes) {
+        return;
+      }
+      hasAttributes = true;
+      if (SX.isNotNull(findTarget)) {
+        targetBGR = findTarget.targetBGR;
+        mask = findTarget.mask;
+        plainColor = findTarget.plainColor;
+        blackColor = findTarget.blackColor;
+        whiteColor = findTarget.whiteColor;
+        grayColor = findTarget.grayColor;
+        resizeFactor = findTarget.resizeFactor;
+        meanColor = findTarget.meanColor;
+        targetStdDev = findTarget.targetStdDev;
+        targetMean = findTarget.targetMean;
         return;
       }
       List<Mat> mats = Finder2.extractMask(target, true);
@@ -1339,6 +1837,23 @@ public class Finder implements Iterator<Match> {
       if (meanColor.length > 1) {
         whiteColor = isMeanColorEqual(Color.WHITE);
       }
+      if (SX.isNotNull(targetImage)) {
+        FindTarget prepared = new FindTarget();
+        prepared.target = target;
+        prepared.targetBGR = targetBGR;
+        prepared.mask = mask;
+        prepared.plainColor = plainColor;
+        prepared.blackColor = blackColor;
+        prepared.whiteColor = whiteColor;
+        prepared.grayColor = grayColor;
+        prepared.resizeFactor = resizeFactor;
+        prepared.meanColor = meanColor;
+        prepared.targetStdDev = targetStdDev;
+        prepared.targetMean = targetMean;
+        targetImage.setFindTarget(prepared);
+        findTarget = prepared;
+        targetImage = null;
+      }
     }
 
     public String toString() {
@@ -1392,7 +1907,14 @@ public class Finder implements Iterator<Match> {
     private int marginY = -1;
 
     public boolean hasNext() {
-      if (findInput.isText()) {
+      if (!findInput.isText() && SX.isNotNull(result) && findInput.isFindAll()) {
+        List<Match> peakMatches = getPeakMatches();
+        if (SX.isNotNull(peakMatches)) {
+          matches = peakMatches;
+          result = null;
+        }
+      }
+      if (findInput.isText() || SX.isNull(result)) {
         if (matches.size() > 0) {
           return true;
         }
@@ -1437,7 +1959,7 @@ public class Finder implements Iterator<Match> {
     public Match next() {
       Match match = null;
       if (hasNext()) {
-        if (findInput.isText()) {
+        if (findInput.isText() || SX.isNull(result)) {
           return matches.remove(0);
         } else {
           match = new Match(currentX + offX, currentY + offY, targetW, targetH, currentScore, null);
@@ -1452,6 +1974,43 @@ public class Finder implements Iterator<Match> {
       return match;
     }
 
+    /**
+     * findAll: all matches from one pass over the result (see Finder2.findPeaks)
+     * with the same stop rule for unclear score steps as the match by match search
+     *
+     * @return the matches, best first, or null if the peaks cannot be used
+     */
+    private List<Match> getPeakMatches() {
+      targetW = findInput.getTarget().width();
+      targetH = findInput.getTarget().height();
+      List<Finder2.Peak> peaks = Finder2.findPeaks(result, findInput.getScore(), targetW, targetH);
+      if (SX.isNull(peaks)) {
+        return null;
+      }
+      List<Match> peakMatches = new LinkedList<>();
+      double previous = -1;
+      double meanDiff = -1;
+      for (Finder2.Peak peak : peaks) {
+        if (Settings.FindAllMax > 0 && peakMatches.size() >= Settings.FindAllMax) {
+          break;
+        }
+        int count = peakMatches.size();
+        if (count == 1) {
+          meanDiff = previous - peak.score;
+        } else if (count > 1) {
+          double scoreDiff = previous - peak.score;
+          if (!findInput.isPattern && scoreDiff > (meanDiff + 0.01)) {
+            Debug.log(3, "findAll: (%d) stop: %.4f (%.4f) %s", count, peak.score, meanDiff, findInput);
+            break;
+          }
+          meanDiff = ((meanDiff * count) + scoreDiff) / (count + 1);
+        }
+        peakMatches.add(new Match(peak.x + offX, peak.y + offY, targetW, targetH, peak.score, null));
+        previous = peak.score;
+      }
+      return peakMatches;
+    }
+
     private int getPurgeMargin() {
       if (currentScore < 0.95) {
         return 4;
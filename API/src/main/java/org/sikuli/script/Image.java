@@ -24,8 +24,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 import java.util.List;
 import java.util.*;
 
@@ -366,6 +364,7 @@ public class Image extends Element {
   //<editor-fold defaultstate="collapsed" desc="00 2 bufferedImage">
   public Image setBimg(BufferedImage bimg) {
     this.bimg = bimg;
+    dropFindTarget();
     if (bimg != null) {
       w = bimg.getWidth();
       h = bimg.getHeight();
@@ -406,6 +405,7 @@ public class Image extends Element {
         log(logLevel + 1, "getImage inMemory: %s", getName());
       } else {
         log(logLevel + 1, "getImage from cache: %s", getName());
+        images.get(this); // LRU: mark as recently used
       }
       return bimg;
     } else {
@@ -424,7 +424,97 @@ public class Image extends Element {
     if (bimg == null) {
       return 0;
     }
-    return (int) bsize / KB;
+    return (int) (bsize + fsize) / KB;
+  }
+  //</editor-fold>
+
+  //<editor-fold defaultstate="collapsed" desc="00 3 prepared find target, pinning">
+  private Finder.FindTarget findTarget = null;
+  private long fsize = 0;
+
+  /**
+   * INTERNAL: the target Mat (with mask and statistics) prepared for searching this image
+   *
+   * @return the prepared target or null (not yet prepared or no longer valid)
+   */
+  Finder.FindTarget getFindTarget() {
+    return findTarget;
+  }
+
+  /**
+   * INTERNAL: remember the target Mat (with mask and statistics) prepared for searching this image<br>
+   * kept only as long as the image's content is cached (the size counts for the cache)
+   *
+   * @param target the prepared target
+   */
+  void setFindTarget(Finder.FindTarget target) {
+    if (bimg == null) {
+      return;
+    }
+    long size = target.getSize();
+    if (fileURL != null) {
+      synchronized (Image.class) {
+        if (!images.containsKey(this)) {
+          return;
+        }
+        findTarget = target;
+        fsize = size;
+        currentMemoryUp(size);
+      }
+    } else {
+      findTarget = target;
+      fsize = size;
+    }
+  }
+
+  // the size counts for the cache only for images from files (see setFindTarget)
+  private void dropFindTarget() {
+    synchronized (Image.class) {
+      if (fileURL != null) {
+        currentMemory = Math.max(0, currentMemory - fsize);
+      }
+      findTarget = null;
+      fsize = 0;
+    }
+  }
+
+  private boolean pinned = false;
+
+  /**
+   * keep this image's content (and the data prepared for searching) in the cache,
+   * even if the cache limit is exceeded (not evicted as least recently used)
+   *
+   * @return this
+   */
+  public Image pin() {
+    pinned = true;
+    return this;
+  }
+
+  /**
+   * this image's content is again evicted from the cache as needed
+   *
+   * @return this
+   */
+  public Image unpin() {
+    pinned = false;
+    return this;
+  }
+
+  /**
+   * INTERNAL: for images from files
+   *
+   * @return true if this image's content is in the cache
+   */
+  boolean isCached() {
+    return fileURL != null && bimg != null;
+  }
+
+  /**
+   * @return true if this image's content is pinned in the cache
+   */
+  public boolean isPinned() {
+    return pinned;
   }
 
   /**
@@ -702,7 +792,8 @@ public class Image extends Element {
   //</editor-fold>
 
   //<editor-fold desc="04 caching">
-  private static List<Image> images = Collections.synchronizedList(new ArrayList<Image>());
+  // images with content in memory in least recently used order
+  private static Map<Image, Boolean> images = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true));
   private static Map<URL, Image> imageFiles = Collections.synchronizedMap(new HashMap<URL, Image>());
   private static Map<String, URL> imageNames = Collections.synchronizedMap(new HashMap<String, URL>());
   private static final int KB = 1024;
@@ -718,11 +809,18 @@ public class Image extends Element {
       currentMemory += size;
     }
     if (currentMemory > maxMemory) {
-      Image first;
-      while (images.size() > 0 && currentMemory > maxMemory) {
-        first = images.remove(0);
-        first.bimg = null;
-        currentMemory -= first.bsize;
+      synchronized (images) {
+        Iterator<Image> lru = images.keySet().iterator();
+        while (lru.hasNext() && currentMemory > maxMemory) {
+          Image first = lru.next();
+          if (first.pinned && maxMemory > 0) {
+            continue;
+          }
+          lru.remove();
+          first.bimg = null;
+          currentMemory -= first.bsize;
+          first.dropFindTarget();
+        }
       }
       if (maxMemory == 0) {
         currentMemory = 0;
@@ -746,7 +844,7 @@ public class Image extends Element {
     return currentMemoryChange(-size, -1);
   }
 
-  private static long currentMemoryDownUp(int sizeOld, int sizeNew) {
+  private static long currentMemoryDownUp(long sizeOld, long sizeNew) {
     currentMemoryDown(sizeOld);
     return currentMemoryUp(sizeNew);
   }
@@ -792,15 +890,22 @@ public class Image extends Element {
       }
     }
     if (!imagePurgeList.isEmpty()) {
-      Iterator<Image> bit = images.iterator();
-      while (bit.hasNext()) {
-        img = bit.next();
-        if (imagePurgeList.contains(img)) {
-          bit.remove();
-          log(logLevel + 1, "purge: bimg: %s", img);
-          currentMemoryDown(img.bsize);
+      List<Image> purged = new ArrayList<>();
+      synchronized (images) {
+        Iterator<Image> bit = images.keySet().iterator();
+        while (bit.hasNext()) {
+          img = bit.next();
+          if (imagePurgeList.contains(img)) {
+            bit.remove();
+            purged.add(img);
+          }
         }
       }
+      for (Image purgedImg : purged) {
+        log(logLevel + 1, "purge: bimg: %s", purgedImg);
+        purgedImg.dropFindTarget();
+        currentMemoryDown(purgedImg.bsize);
+      }
     }
     for (String name : imageNamePurgeList) {
       imageNames.remove(name);
@@ -1005,7 +1110,7 @@ public class Image extends Element {
           int maxMemory = Settings.getImageCache() * MB;
           currentMemoryUp(bsize);
           bimg = bImage;
-          images.add(this);
+          images.put(this, Boolean.TRUE);
           log(logLevel + 1, "cached: %s (%d KB) (# %d KB %d -- %d %% of %d MB)",
               getName(), getKB(),
               images.size(), (int) (currentMemory / KB),
@@ -1049,7 +1154,8 @@ public class Image extends Element {
     URL uImage = imageNames.get(fpImage);
     if (imageFiles.containsKey(uImage)) {
       Image image = imageFiles.get(uImage);
-      int sizeOld = image.bsize;
+      long sizeOld = image.bsize;
+      image.dropFindTarget();
       if (null != image.loadAgain()) {
         currentMemoryDownUp(sizeOld, image.bsize);
         image.setLastSeen(null, 0); // reload
@@ -1061,6 +1167,7 @@ public class Image extends Element {
     ideShouldReload = true;
     img.wasRecaptured = true;
     img.lastSeen = null;
+    img.dropFindTarget();
   }
 
   public static boolean getIDEshouldReload() {
@@ -1515,21 +1622,19 @@ public class Image extends Element {
 
   public static Mat makeMat(BufferedImage bImg, boolean asBGR) {
     if (bImg.getType() == BufferedImage.TYPE_INT_RGB) {
-      int[] data = ((DataBufferInt) bImg.getRaster().getDataBuffer()).getData();
-      ByteBuffer byteBuffer = ByteBuffer.allocate(data.length * 4);
-      IntBuffer intBuffer = byteBuffer.asIntBuffer();
-      intBuffer.put(data);
-      Mat aMat = new Mat(bImg.getHeight(), bImg.getWidth(), CvType.CV_8UC4);
-      aMat.put(0, 0, byteBuffer.array());
-      Mat oMatBGR = new Mat(bImg.getHeight(), bImg.getWidth(), CvType.CV_8UC3);
-      Mat oMatA = new Mat(bImg.getHeight(), bImg.getWidth(), CvType.CV_8UC1);
-      List<Mat> mixIn = new ArrayList<Mat>(Arrays.asList(new Mat[]{aMat}));
-      List<Mat> mixOut = new ArrayList<Mat>(Arrays.asList(new Mat[]{oMatA, oMatBGR}));
-      //A 0 - R 1 - G 2 - B 3 -> A 0 - B 1 - G 2 - R 3
-      Core.mixChannels(mixIn, mixOut, new MatOfInt(0, 0, 1, 3, 2, 2, 3, 1));
-      return oMatBGR;
+      int[] data = (int[]) getRasterData(bImg);
+      byte[] dataBGR = new byte[data.length * 3];
+      int n = 0;
+      for (int pixel : data) {
+        dataBGR[n++] = (byte) pixel;
+        dataBGR[n++] = (byte) (pixel >> 8);
+        dataBGR[n++] = (byte) (pixel >> 16);
+      }
+      Mat aMatBGR = new Mat(bImg.getHeight(), bImg.getWidth(), CvType.CV_8UC3);
+      aMatBGR.put(0, 0, dataBGR);
+      return aMatBGR;
     } else if (bImg.getType() == BufferedImage.TYPE_3BYTE_BGR) {
-      byte[] data = ((DataBufferByte) bImg.getRaster().getDataBuffer()).getData();
+      byte[] data = (byte[]) getRasterData(bImg);
       Mat aMatBGR = new Mat(bImg.getHeight(), bImg.getWidth(), CvType.CV_8UC3);
       aMatBGR.put(0, 0, data);
       return aMatBGR;
@@ -1547,21 +1652,23 @@ public class Image extends Element {
       aMatBGR.put(0, 0, data);
       return aMatBGR;
     } else if (bImg.getType() == BufferedImage.TYPE_4BYTE_ABGR) { //TODO || bImg.getType() == BufferedImage.TYPE_CUSTOM) {
-      List<Mat> mats = getMatList(bImg);
-      Size size = mats.get(0).size();
+      byte[] data = (byte[]) getRasterData(bImg);
+      Mat aMat = new Mat(bImg.getHeight(), bImg.getWidth(), CvType.CV_8UC4);
+      aMat.put(0, 0, data);
+      Mat mResult;
+      MatOfInt fromTo;
+      //A 0 - B 1 - G 2 - R 3 -> B 0 - G 1 - R 2 (- A 3)
       if (!asBGR) {
-        Mat mBGRA = getNewMat(size, 4, -1);
-        mats.add(mats.remove(0));
-        Core.merge(mats, mBGRA);
-        return mBGRA;
+        mResult = getNewMat(aMat.size(), 4, -1);
+        fromTo = new MatOfInt(1, 0, 2, 1, 3, 2, 0, 3);
       } else {
-        Mat mBGR = getNewMat(size, 3, -1);
-        mats.remove(0);
-        Core.merge(mats, mBGR);
-        return mBGR;
+        mResult = getNewMat(aMat.size(), 3, -1);
+        fromTo = new MatOfInt(1, 0, 2, 1, 3, 2);
       }
+      Core.mixChannels(Collections.singletonList(aMat), Collections.singletonList(mResult), fromTo);
+      return mResult;
     } else if (bImg.getType() == BufferedImage.TYPE_BYTE_GRAY) {
-      byte[] data = ((DataBufferByte) bImg.getRaster().getDataBuffer()).getData();
+      byte[] data = (byte[]) getRasterData(bImg);
       Mat aMat = new Mat(bImg.getHeight(), bImg.getWidth(), CvType.CV_8UC1);
       aMat.put(0, 0, data);
       return aMat;
@@ -1583,12 +1690,40 @@ public class Image extends Element {
     return getBufferedImage(mat, dotPNG);
   }
 
+  /**
+   * the pixel data of the image's raster as packed array (byte[] or int[])<br>
+   * the raster's buffer is used directly, if it is not shared with a parent image (see getSubimage())
+   *
+   * @param bImg the image
+   * @return the raster data
+   */
+  static Object getRasterData(BufferedImage bImg) {
+    WritableRaster raster = bImg.getRaster();
+    int size = bImg.getWidth() * bImg.getHeight() * raster.getNumDataElements();
+    if (raster.getParent() != null || raster.getDataBuffer().getSize() != size) {
+      BufferedImage bImgCopy = new BufferedImage(bImg.getWidth(), bImg.getHeight(), bImg.getType());
+      bImgCopy.getRaster().setRect(-raster.getMinX(), -raster.getMinY(), raster);
+      raster = bImgCopy.getRaster();
+    }
+    DataBuffer buffer = raster.getDataBuffer();
+    if (buffer instanceof DataBufferInt) {
+      return ((DataBufferInt) buffer).getData();
+    }
+    return ((DataBufferByte) buffer).getData();
+  }
+
   public static BufferedImage getBufferedImage(Mat mat, String type) {
     BufferedImage bImg = null;
-    MatOfByte bytemat = new MatOfByte();
     if (SX.isNull(mat)) {
       mat = getNewMat();
     }
+    if (dotPNG.equals(type)) {
+      bImg = makeBufferedImage(mat);
+      if (SX.isNotNull(bImg)) {
+        return bImg;
+      }
+    }
+    MatOfByte bytemat = new MatOfByte();
     Imgcodecs.imencode(type, mat, bytemat);
     byte[] bytes = bytemat.toArray();
     InputStream in = new ByteArrayInputStream(bytes);
@@ -1600,6 +1735,45 @@ public class Image extends Element {
     return bImg;
   }
 
+  /**
+   * copy the pixels of a 8-bit Mat (gray, BGR or BGRA) directly into the buffer of a new BufferedImage
+   * (TYPE_BYTE_GRAY, TYPE_3BYTE_BGR or TYPE_4BYTE_ABGR) - same result as a PNG encode/decode round trip
+   *
+   * @param mat the Mat
+   * @return the BufferedImage or null (not possible with this Mat)
+   */
+  private static BufferedImage makeBufferedImage(Mat mat) {
+    if (mat.empty() || mat.depth() != CvType.CV_8U) {
+      return null;
+    }
+    int bType;
+    Mat mPixels = mat;
+    switch (mat.channels()) {
+      case 1:
+        bType = BufferedImage.TYPE_BYTE_GRAY;
+        break;
+      case 3:
+        bType = BufferedImage.TYPE_3BYTE_BGR;
+        break;
+      case 4:
+        bType = BufferedImage.TYPE_4BYTE_ABGR;
+        mPixels = getNewMat(mat.size(), 4, -1);
+        //B 0 - G 1 - R 2 - A 3 -> A 0 - B 1 - G 2 - R 3
+        Core.mixChannels(Collections.singletonList(mat), Collections.singletonList(mPixels),
+            new MatOfInt(0, 1, 1, 2, 2, 3, 3, 0));
+        break;
+      default:
+        return null;
+    }
+    if (!mPixels.isContinuous()) {
+      mPixels = mPixels.clone();
+    }
+    BufferedImage bImg = new BufferedImage(mat.cols(), mat.rows(), bType);
+    byte[] data = ((DataBufferByte) bImg.getRaster().getDataBuffer()).getData();
+    mPixels.get(0, 0, data);
+    return bImg;
+  }
+
   //</editor-fold>
 
   public void show() {
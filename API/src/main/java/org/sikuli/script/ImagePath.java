@@ -7,6 +7,7 @@ import org.sikuli.basics.Debug;
 import org.sikuli.basics.FileManager;
 import org.sikuli.basics.Settings;
 import org.sikuli.script.support.Commons;
+import org.sikuli.script.support.ImageIndex;
 
 import java.io.*;
 import java.net.URL;
@@ -773,8 +774,11 @@ public class ImagePath {
           url = Commons.makeURL(entry.getPath(), imageFileName); // find
         }
         if (url != null) {
+          Boolean known = ImageIndex.exists(url);
           int check = -1;
-          if (proto.startsWith("http")) {
+          if (known != null) {
+            check = known ? 1 : 0;
+          } else if (proto.startsWith("http")) {
             check = FileManager.isUrlUseabel(url);
           } else {
             try {
@@ -788,7 +792,7 @@ public class ImagePath {
           }
         }
       } else if ("file".equals(proto)) {
-        if (new File(entry.getPath(), imageFileName).exists()) {
+        if (exists(new File(entry.getPath()), imageFileName)) {
           url = Commons.makeURL(entry.getPath(), imageFileName); // find
         }
       } else {
@@ -812,6 +816,11 @@ public class ImagePath {
     return url;
   }
 
+  private static boolean exists(File folder, String name) {
+    Boolean known = ImageIndex.exists(folder, name); // ImagePath folder listing kept by a watcher
+    return known != null ? known : new File(folder, name).exists();
+  }
+
   /**
    * given absolute or relative (searched on image path) file name<br>
    * is tried to open as a BufferedReader<br>
@@ -19,7 +19,9 @@ import java.util.*;
 /**
  * Static helper class for OCR via Tess4J/Tesseract.
  * <p>
- * The methods in this class are not threadsafe.
+ * Text can be read from different threads in parallel: each read uses its own initialized
+ * Tesseract engine taken from a pool (see Settings.OcrPoolSize).
+ * Changing an Options set while it is used for reading is not threadsafe.
  * @see <a href="https://sikulix-2014.readthedocs.io/en/latest/textandocr.html">SikuliX docs: Text and OCR</a>
  */
 public class OCR {
@@ -792,6 +794,17 @@ public class OCR {
   public static <SFIRBS> List<Match> readLines(SFIRBS from, Options options) {
     return TextRecognizer.get(options).readLines(from);
   }
+
+  /**
+   * INTERNAL: Reads the text lines together with the words they contain in one OCR pass.
+   * <p>Uses the global options.
+   * @param <SFIRBS> File name, File, Image, Region, BufferdImage or ScreenImage
+   * @param from     source to read text from
+   * @return lines with their words
+   */
+  protected static <SFIRBS> List<TextRecognizer.TextLine> readLinesWithWords(SFIRBS from) {
+    return TextRecognizer.get(globalOptions()).readLinesWithWords(from);
+  }
   //</editor-fold>
 
   //<editor-fold desc="22 word">
@@ -29,6 +29,7 @@ public class ObserveEvent {
   private int index = -1;
   private List<Match> changes = null;
   private long time;
+  private long dispatchTime = 0;
   private String name;
   private Object[] vals = new Object[]{null, null, null};
 
@@ -253,6 +254,36 @@ public class ObserveEvent {
     return time;
   }
 
+  /**
+   * @return when the event was detected (same as getTime())
+   */
+  public long getDetectionTime() {
+    return time;
+  }
+
+  /**
+   * @return when the callback was started (0 if not yet)
+   */
+  public long getDispatchTime() {
+    return dispatchTime;
+  }
+
+  /**
+   * INTERNAL: when the callback is started
+   *
+   * @param dispatchTime time in milliseconds
+   */
+  public void setDispatchTime(long dispatchTime) {
+    this.dispatchTime = dispatchTime;
+  }
+
+  /**
+   * @return milliseconds from detection to the start of the callback (-1 if not yet started)
+   */
+  public long getLatency() {
+    return dispatchTime > 0 ? dispatchTime - time : -1;
+  }
+
   /**
    * tell the observer to repeat this event's observe action immediately
    * after returning from this handler (APPEAR, VANISH)
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.script;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * INTERNAL USE: the Finders of an observer - one per pattern name
+ * <p>
+ * Each keeps its own previous shot and not found targets, so a pattern not found before
+ * is only searched in the areas changed since (a Finder shared by the patterns would diff a frame against itself).
+ * All of them search in the same frame, that is captured once per observe round.
+ */
+public class PatternFinders {
+
+  private final Map<String, Finder> finders = new HashMap<>();
+  private Finder frame = null;
+
+  /**
+   * the next frame to search in, for all patterns
+   *
+   * @param simg   the capture
+   * @param region the observed region
+   */
+  public void newFrame(ScreenImage simg, Region region) {
+    frame = new Finder(simg, region);
+  }
+
+  /**
+   * @param name the pattern's name
+   * @return the pattern's Finder, switched to the current frame
+   */
+  public Finder get(String name) {
+    Finder finder = finders.get(name);
+    if (finder == null) {
+      finder = new Finder(frame);
+      finders.put(name, finder);
+    } else {
+      finder.newShot(frame);
+    }
+    return finder;
+  }
+
+  public void remove(String name) {
+    finders.remove(name);
+  }
+
+  public void clear() {
+    finders.clear();
+    frame = null;
+  }
+
+  /**
+   * run on the executor shared by the parallel find operations
+   *
+   * @param task the search
+   * @return the task's Future
+   */
+  public static Future<?> submit(Runnable task) {
+    return Finder.getFindExecutor().submit(task);
+  }
+}
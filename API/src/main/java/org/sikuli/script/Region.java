@@ -2659,6 +2659,8 @@ public class Region extends Element {
       } catch (Exception e) {
       }
     }
+    // the callbacks run apart from the scanning: observe returns after they are done
+    ObserveDispatcher.await(regionObserver);
     boolean observeSuccess = false;
     if (observing) {
       observing = false;
@@ -2683,10 +2685,13 @@ public class Region extends Element {
       Debug.error("Region: observeInBackground: already running for this region. Only one allowed!");
       return false;
     }
+    if (regionObserver == null) {
+      Debug.error("Region: observeInBackground: Nothing to observe (Region might be invalid): " + this.toStringShort());
+      return false;
+    }
     observing = true;
     observingInBackground = true;
-    Thread observeThread = new Thread(new ObserverThread(secs));
-    observeThread.start();
+    ObserveScheduler.start(this, secs);
     log(logLevel, "observeInBackground now running");
     return true;
   }
@@ -2701,20 +2706,6 @@ public class Region extends Element {
     return observeInBackground(Double.MAX_VALUE);
   }
 
-  private class ObserverThread implements Runnable {
-
-    private double time;
-
-    ObserverThread(double time) {
-      this.time = time;
-    }
-
-    @Override
-    public void run() {
-      observeDo(time);
-    }
-  }
-
   /**
    * stops a running observer
    */
@@ -2723,6 +2714,9 @@ public class Region extends Element {
     observing = false;
     observingInBackground = false;
     Observing.removeRunningObserver(this);
+    if (regionObserver != null) {
+      ObserveDispatcher.cancel(regionObserver);
+    }
   }
 
   /**
@@ -511,7 +511,9 @@ public class Screen extends Region implements IScreen {
   @Override
   public ScreenImage capture(Rectangle rect) {
     lastCaptureTime = new Date().getTime();
+    long captureStart = System.nanoTime();
     ScreenImage simg = getRobot().captureScreen(rect);
+    FindMetrics.capture(rect, this, System.nanoTime() - captureStart);
     if (Settings.FindProfiling) {
       Debug.print("[FindProfiling] Screen.capture [%d x %d]: %d msec",
           rect.width, rect.height, new Date().getTime() - lastCaptureTime);
@@ -3,7 +3,8 @@
  */
 package org.sikuli.script;
 
-import net.sourceforge.tess4j.ITesseract;
+import com.sun.jna.Pointer;
+import net.sourceforge.tess4j.ITessAPI;
 import net.sourceforge.tess4j.Tesseract1;
 import net.sourceforge.tess4j.TesseractException;
 import net.sourceforge.tess4j.Word;
@@ -17,13 +18,20 @@ import org.sikuli.basics.Debug;
 import org.sikuli.basics.Settings;
 import org.sikuli.script.runners.ProcessRunner;
 import org.sikuli.script.support.Commons;
+import org.sikuli.script.support.FindMetrics;
+import org.sikuli.script.support.NativeBootstrap;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -43,6 +51,10 @@ public class TextRecognizer {
 
   protected static void setValid(boolean state) {
     isValid = state;
+    if (!state) {
+      clearPool();
+      clearCache();
+    }
   }
 
   private static final int lvl = 3;
@@ -90,7 +102,15 @@ public class TextRecognizer {
       String libVersion = LoadLibs.LIB_NAME.replace("libtesseract", "");
       versionTesseract = String.format("%s.%s.%s", libVersion.substring(0, 1), libVersion.substring(1, 2), libVersion.substring(2));
       if (!Commons.runningWindows()) {
-        String tesseract = ProcessRunner.run("tesseract", "--version");
+        // kept as long as the tesseract program is not changed
+        String tesseract = NativeBootstrap.probe(new File(Commons.getAppDataPath(), "SikulixTesseract"), "tesseract",
+            () -> {
+              String output = ProcessRunner.run("tesseract", "--version");
+              return output.startsWith("0\n") ? output : null;
+            });
+        if (tesseract == null) {
+          tesseract = "";
+        }
         String runningTesseract = "-None-";
         boolean success = false;
         if (tesseract.startsWith("0\n")) {
@@ -143,14 +163,17 @@ public class TextRecognizer {
             if ((!tesseractStamp.isEmpty() && !new File(targetFolder, tesseractStamp).exists()) ||
                 !new File(targetFolder, "eng.traineddata").exists()) {
               List<String> contentList = Commons.getFileList(resFolder, OCR.classTesseract);
+              List<NativeBootstrap.Item> items = new ArrayList<>();
               for (String res : contentList) {
                 String targetName = res.substring(resFolder.length() + 1);
                 if (targetName.startsWith("osd.") || targetName.startsWith("pdf.")) {
                   continue;
                 }
-                Commons.copyResourceToFile(res, OCR.classTesseract, new File(targetFolder, targetName));
+                items.add(new NativeBootstrap.Item(res, OCR.classTesseract, targetName, false));
               }
-              if (contentList.size() > 0 && !new File(targetFolder, tesseractStamp).exists()) {
+              // the stamp only after all files are complete - otherwise exported again next time
+              if (NativeBootstrap.extract("tessdata", targetFolder, items) > -1
+                  && contentList.size() > 0 && !new File(targetFolder, tesseractStamp).exists()) {
                 FileUtils.touch(new File(targetFolder, tesseractStamp));
               }
             }
@@ -174,9 +197,9 @@ public class TextRecognizer {
     return textRecognizer;
   }
 
-  private ITesseract getTesseractAPI() {
+  private PooledTesseract getTesseractAPI() {
     try {
-      ITesseract tesseract = new Tesseract1();
+      PooledTesseract tesseract = new PooledTesseract(getPoolKey(options));
       tesseract.setOcrEngineMode(options.oem());
       tesseract.setPageSegMode(options.psm());
       String language = options.language();
@@ -214,6 +237,173 @@ public class TextRecognizer {
     }
   }
 
+  //<editor-fold desc="01 Tesseract engine pool">
+
+  /**
+   * A Tesseract1, that keeps its native handle initialized between the OCR calls
+   * (Tesseract1 creates/inits and deletes the handle with every call).
+   * <p>
+   * Must only be used by one thread at a time: see checkOut()/checkIn()
+   */
+  private static class PooledTesseract extends Tesseract1 {
+
+    private final String key;
+    private boolean initialized = false;
+
+    PooledTesseract(String key) {
+      this.key = key;
+    }
+
+    @Override
+    protected void init() {
+      if (!initialized) {
+        super.init();
+        initialized = true;
+      }
+    }
+
+    @Override
+    protected void dispose() {
+      // keep the initialized handle for the next use
+    }
+
+    /**
+     * one recognition pass: the text lines, each with the words it contains
+     *
+     * @param bimg the image
+     * @return text lines (in reading order) mapped to their words (empty elements are skipped)
+     */
+    Map<Word, List<Word>> getLinesWithWords(BufferedImage bimg) {
+      Map<Word, List<Word>> lines = new LinkedHashMap<>();
+      init();
+      setVariables();
+      try {
+        setImage(bimg, null);
+        if (TessBaseAPIRecognize(getHandle(), null) != 0) {
+          Debug.error("OCR: read: Tess4J: recognize failed");
+          return lines;
+        }
+        ITessAPI.TessResultIterator ri = TessBaseAPIGetIterator(getHandle());
+        if (ri == null) {
+          return lines;
+        }
+        try {
+          ITessAPI.TessPageIterator pi = TessResultIteratorGetPageIterator(ri);
+          TessPageIteratorBegin(pi);
+          List<Word> words = null;
+          do {
+            if (words == null || TessPageIteratorIsAtBeginningOf(pi, ITessAPI.TessPageIteratorLevel.RIL_TEXTLINE) == ITessAPI.TRUE) {
+              words = new ArrayList<>();
+              Word line = getWord(ri, pi, ITessAPI.TessPageIteratorLevel.RIL_TEXTLINE);
+              if (line != null) {
+                lines.put(line, words);
+              }
+            }
+            Word word = getWord(ri, pi, ITessAPI.TessPageIteratorLevel.RIL_WORD);
+            if (word != null) {
+              words.add(word);
+            }
+          } while (TessPageIteratorNext(pi, ITessAPI.TessPageIteratorLevel.RIL_WORD) == ITessAPI.TRUE);
+        } finally {
+          TessResultIteratorDelete(ri);
+        }
+      } catch (IOException e) {
+        Debug.error("OCR: read: Tess4J: setImage: %s", e.getMessage());
+      }
+      return lines;
+    }
+
+    // null for an element without text (as Tess4J's getWords: its box has no meaning)
+    private Word getWord(ITessAPI.TessResultIterator ri, ITessAPI.TessPageIterator pi, int level) {
+      Pointer pText = TessResultIteratorGetUTF8Text(ri, level);
+      if (pText == null) {
+        return null;
+      }
+      String text = pText.getString(0);
+      TessDeleteText(pText);
+      if (text.trim().isEmpty()) {
+        return null;
+      }
+      float confidence = TessResultIteratorConfidence(ri, level);
+      IntBuffer left = IntBuffer.allocate(1);
+      IntBuffer top = IntBuffer.allocate(1);
+      IntBuffer right = IntBuffer.allocate(1);
+      IntBuffer bottom = IntBuffer.allocate(1);
+      TessPageIteratorBoundingBox(pi, level, left, top, right, bottom);
+      Rectangle box = new Rectangle(left.get(0), top.get(0), right.get(0) - left.get(0), bottom.get(0) - top.get(0));
+      return new Word(text, confidence, box);
+    }
+
+    void close() {
+      if (initialized) {
+        super.dispose();
+        initialized = false;
+      }
+    }
+  }
+
+  private static final Map<String, Deque<PooledTesseract>> tesseractPool = new HashMap<>();
+
+  /**
+   * the key of the Options relevant for the Tesseract engine setup
+   * (image optimization settings are not relevant)
+   */
+  private static String getPoolKey(OCR.Options options) {
+    return String.format("%d|%d|%s|%s|%s|%s", options.oem(), options.psm(), options.language(),
+        options.dataPath(), options.variables(), options.configs());
+  }
+
+  /**
+   * get an initialized Tesseract engine for the current options for exclusive use<br>
+   * must be returned with checkIn() after use
+   *
+   * @return the engine
+   */
+  private PooledTesseract checkOut() {
+    String key = getPoolKey(options);
+    synchronized (tesseractPool) {
+      Deque<PooledTesseract> engines = tesseractPool.get(key);
+      if (engines != null && !engines.isEmpty()) {
+        return engines.pop();
+      }
+    }
+    return getTesseractAPI();
+  }
+
+  /**
+   * return an engine to the pool after use<br>
+   * engines exceeding Settings.OcrPoolSize per Options are released
+   *
+   * @param tesseract the engine
+   */
+  private static void checkIn(PooledTesseract tesseract) {
+    synchronized (tesseractPool) {
+      Deque<PooledTesseract> engines = tesseractPool.computeIfAbsent(tesseract.key, k -> new ArrayDeque<>());
+      if (engines.size() < Settings.OcrPoolSize) {
+        engines.push(tesseract);
+        return;
+      }
+    }
+    tesseract.close();
+  }
+
+  /**
+   * release all pooled Tesseract engines (e.g. after a change of the tessdata folder)
+   */
+  protected static void clearPool() {
+    List<PooledTesseract> engines = new ArrayList<>();
+    synchronized (tesseractPool) {
+      for (Deque<PooledTesseract> pooled : tesseractPool.values()) {
+        engines.addAll(pooled);
+      }
+      tesseractPool.clear();
+    }
+    for (PooledTesseract engine : engines) {
+      engine.close();
+    }
+  }
+  //</editor-fold>
+
   /**
    * @see OCR#reset()
    * @deprecated use OCR.reset() instead
@@ -233,6 +423,91 @@ public class TextRecognizer {
   }
   //</editor-fold>
 
+  //<editor-fold desc="05 OCR result cache">
+  private static final Map<String, Object> ocrCache = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+      return size() > Settings.OcrCacheSize;
+    }
+  };
+
+  /**
+   * the cache key: pixel content of the image, relevant Options and the kind of read
+   */
+  private String getCacheKey(BufferedImage bimg, String what) {
+    if (Settings.OcrCacheSize < 1) {
+      return null;
+    }
+    return String.format("%s|%dx%d-%d-%016x|%s|%.3f|%s|%s|%s", what,
+        bimg.getWidth(), bimg.getHeight(), bimg.getType(), pixelHash(bimg),
+        getPoolKey(options), options.factor(), options.isLightFont(), options.isGrayFont(),
+        options.resizeInterpolation());
+  }
+
+  /**
+   * a fast 64-bit hash (FNV-1a) over the raster data of the image
+   */
+  private static long pixelHash(BufferedImage bimg) {
+    long hash = 0xcbf29ce484222325L;
+    Object data = Image.getRasterData(bimg);
+    if (data instanceof int[]) {
+      for (int value : (int[]) data) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+      }
+    } else {
+      byte[] bytes = (byte[]) data;
+      int n = 0;
+      for (; n + 3 < bytes.length; n += 4) {
+        hash ^= (bytes[n] & 0xff) | (bytes[n + 1] & 0xff) << 8 | (bytes[n + 2] & 0xff) << 16 | (bytes[n + 3] & 0xff) << 24;
+        hash *= 0x100000001b3L;
+      }
+      for (; n < bytes.length; n++) {
+        hash ^= bytes[n] & 0xff;
+        hash *= 0x100000001b3L;
+      }
+    }
+    return hash;
+  }
+
+  // the key contains the kind of read, so the cached value has the type the caller expects
+  @SuppressWarnings("unchecked")
+  private static <T> T getCached(String key) {
+    if (key == null) {
+      return null;
+    }
+    synchronized (ocrCache) {
+      return (T) ocrCache.get(key);
+    }
+  }
+
+  private static void putCached(String key, Object result) {
+    if (key == null) {
+      return;
+    }
+    synchronized (ocrCache) {
+      ocrCache.put(key, result);
+    }
+  }
+
+  /**
+   * forget all cached OCR results
+   */
+  protected static void clearCache() {
+    synchronized (ocrCache) {
+      ocrCache.clear();
+    }
+  }
+
+  private static List<Match> copyMatches(List<Match> matches) {
+    List<Match> copies = new ArrayList<>();
+    for (Match match : matches) {
+      copies.add(new Match(match.getRect(), match.getScore(), match.getText()));
+    }
+    return copies;
+  }
+  //</editor-fold>
+
   //<editor-fold desc="02 set OEM, PSM">
 
   /**
@@ -437,36 +712,118 @@ public class TextRecognizer {
       Debug.error("OCR: read: %s (no image)", from);
       return "";
     }
-    String text;
+    String cacheKey = getCacheKey(bimg, "text");
+    String text = getCached(cacheKey);
+    if (text != null) {
+      return text;
+    }
+    BufferedImage bimgOptimized = optimize(bimg);
+    PooledTesseract tesseractAPI = checkOut();
+    long start = System.nanoTime();
     try {
-      ITesseract tesseractAPI = getTesseractAPI();
-      text = tesseractAPI.doOCR(optimize(bimg));
+      text = tesseractAPI.doOCR(bimgOptimized);
       text = text.trim().replace("\n\n", "\n");
     } catch (TesseractException e) {
       Debug.error("OCR: read: Tess4J: doOCR: %s", e.getMessage());
       return "";
+    } finally {
+      checkIn(tesseractAPI);
+      FindMetrics.ocrEngine("text", System.nanoTime() - start);
     }
+    putCached(cacheKey, text);
     return text;
   }
 
   protected <SFIRBS> List<Match> readTextItems(SFIRBS from, int level) {
     List<Match> lines = new ArrayList<>();
     BufferedImage bimg = Element.getBufferedImage(from);
+    String cacheKey = getCacheKey(bimg, "items" + level);
+    List<Match> cached = getCached(cacheKey);
+    if (cached != null) {
+      return copyMatches(cached);
+    }
     BufferedImage bimgResized = optimize(bimg);
-    List<Word> textItems = getTesseractAPI().getWords(bimgResized, level);
+    List<Word> textItems;
+    PooledTesseract tesseractAPI = checkOut();
+    long start = System.nanoTime();
+    try {
+      textItems = tesseractAPI.getWords(bimgResized, level);
+    } finally {
+      checkIn(tesseractAPI);
+      FindMetrics.ocrEngine(level == OCR.PAGE_ITERATOR_LEVEL_WORD ? "words" : "lines", System.nanoTime() - start);
+    }
     double wFactor = (double) bimg.getWidth() / bimgResized.getWidth();
     double hFactor = (double) bimg.getHeight() / bimgResized.getHeight();
     for (Word textItem : textItems) {
-      Rectangle boundingBox = textItem.getBoundingBox();
-      Rectangle realBox = new Rectangle(
-          (int) (boundingBox.x * wFactor) - 1,
-          (int) (boundingBox.y * hFactor) - 1,
-          1 + (int) (boundingBox.width * wFactor) + 2,
-          1 + (int) (boundingBox.height * hFactor) + 2);
-      lines.add(new Match(realBox, textItem.getConfidence(), textItem.getText().trim()));
+      lines.add(makeMatch(textItem, wFactor, hFactor));
     }
+    putCached(cacheKey, copyMatches(lines));
     return lines;
   }
+
+  /**
+   * INTERNAL: the text lines with their words (both as Match) read in one OCR pass
+   */
+  protected static class TextLine {
+    final Match line;
+    final List<Match> words = new ArrayList<>();
+
+    TextLine(Match line) {
+      this.line = line;
+    }
+  }
+
+  protected <SFIRBS> List<TextLine> readLinesWithWords(SFIRBS from) {
+    List<TextLine> lines = new ArrayList<>();
+    BufferedImage bimg = Element.getBufferedImage(from);
+    String cacheKey = getCacheKey(bimg, "linesWithWords");
+    List<TextLine> cached = getCached(cacheKey);
+    if (cached != null) {
+      return copyLines(cached);
+    }
+    BufferedImage bimgResized = optimize(bimg);
+    Map<Word, List<Word>> textItems;
+    PooledTesseract tesseractAPI = checkOut();
+    long start = System.nanoTime();
+    try {
+      textItems = tesseractAPI.getLinesWithWords(bimgResized);
+    } finally {
+      checkIn(tesseractAPI);
+      FindMetrics.ocrEngine("linesWithWords", System.nanoTime() - start);
+    }
+    double wFactor = (double) bimg.getWidth() / bimgResized.getWidth();
+    double hFactor = (double) bimg.getHeight() / bimgResized.getHeight();
+    for (Map.Entry<Word, List<Word>> textItem : textItems.entrySet()) {
+      TextLine line = new TextLine(makeMatch(textItem.getKey(), wFactor, hFactor));
+      for (Word word : textItem.getValue()) {
+        line.words.add(makeMatch(word, wFactor, hFactor));
+      }
+      lines.add(line);
+    }
+    putCached(cacheKey, copyLines(lines));
+    return lines;
+  }
+
+  private static List<TextLine> copyLines(List<TextLine> lines) {
+    List<TextLine> copies = new ArrayList<>();
+    for (TextLine line : lines) {
+      Match match = line.line;
+      TextLine copy = new TextLine(new Match(match.getRect(), match.getScore(), match.getText()));
+      copy.words.addAll(copyMatches(line.words));
+      copies.add(copy);
+    }
+    return copies;
+  }
+
+  private Match makeMatch(Word textItem, double wFactor, double hFactor) {
+    Rectangle boundingBox = textItem.getBoundingBox();
+    Rectangle realBox = new Rectangle(
+        (int) (boundingBox.x * wFactor) - 1,
+        (int) (boundingBox.y * hFactor) - 1,
+        1 + (int) (boundingBox.width * wFactor) + 2,
+        1 + (int) (boundingBox.height * hFactor) + 2);
+    return new Match(realBox, textItem.getConfidence(), textItem.getText().trim());
+  }
   //</editor-fold>
 
   //<editor-fold desc="99 obsolete">
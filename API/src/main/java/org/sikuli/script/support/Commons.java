@@ -29,6 +29,7 @@ import java.nio.file.*;
 import java.security.CodeSource;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -44,6 +45,7 @@ public class Commons {
 
   public static void init() {
     Settings.init();
+    startLibsExport();
   }
 
   //<editor-fold desc="00 static / IDE support">
@@ -147,6 +149,8 @@ public class Commons {
     if (GLOBAL_OPTIONS != null) {
       saveGlobalOptions();
     }
+    FindMetrics.export();
+    ImageIndex.save();
     Debug.runShutDown();
     if (SX_PRINTOUT != null) {
       SX_PRINTOUT.close();
@@ -1433,19 +1437,41 @@ Software:
   }
 
   private static List<String> libsLoaded = new ArrayList<>();
-  private static boolean areLibsExported = false;
+  private static Future<Boolean> libsExported = null;
+  private static volatile File libsExportedTo = null;
+
+  // started with init(), so the libs are exported, while the startup continues
+  private static synchronized Future<Boolean> startLibsExport() {
+    if (libsExported == null) {
+      libsExported = NativeBootstrap.inBackground("libsExport", Commons::libsExport);
+    }
+    return libsExported;
+  }
+
+  private static boolean awaitLibsExport() {
+    if (!NativeBootstrap.await(startLibsExport())) {
+      return false;
+    }
+    if (!getLibsFolder().equals(libsExportedTo)) {
+      // app data path was changed after init()
+      synchronized (Commons.class) {
+        libsExported = null;
+      }
+      return NativeBootstrap.await(startLibsExport());
+    }
+    return true;
+  }
 
   public static void loadOpenCV() {
     if (libsLoaded.contains("OPENCV")) {
       return;
     }
-    if (!areLibsExported) {
-      libsExport();
-      if (!areLibsExported) {
-        terminate(999, "loadLib: deferred exporting of libs did not work");
-      }
+    if (!awaitLibsExport()) {
+      terminate(999, "loadLib: deferred exporting of libs did not work");
     }
+    long start = System.currentTimeMillis();
     File lib = OpenCV.load();
+    NativeBootstrap.timing("loadOpenCV", start);
     if (null != loadLib(lib)) {
       libsLoaded.add("OPENCV");
     } else {
@@ -1466,11 +1492,8 @@ Software:
       userLib = userLibsPath + ": ";
     } else {
       //try exported libs
-      if (!areLibsExported) {
-        libsExport();
-        if (!areLibsExported) {
-          terminate(999, "loadLib: deferred exporting of libs did not work");
-        }
+      if (!awaitLibsExport()) {
+        terminate(999, "loadLib: deferred exporting of libs did not work");
       }
       fLib = loadLib(new File(getLibsFolder(), libFileName));
     }
@@ -1500,14 +1523,14 @@ Software:
       } else {
         System.loadLibrary("" + fLib);
       }
-    } catch (Exception e) {
+    } catch (Exception | UnsatisfiedLinkError e) {
       Debug.error("loadLibrary: not useable: %s (%s)", fLib, e.getMessage());
       return null;
     }
     return fLib;
   }
 
-  private static void libsExport() {
+  private static boolean libsExport() {
     String fpJarLibs = getJarLibsPath();
     File fLibsFolder = getLibsFolder();
     if (fLibsFolder.exists()) {
@@ -1523,32 +1546,25 @@ Software:
       }
       makeVersionFile(fLibsFolder); //TODO
       Debug.log(3, "libsFolder: created %s (%s)", fLibsFolder, getSXVersionLong());
-      didExport = true;
-    }
-    if (!shouldExport()) { //TODO for what needed?
-      areLibsExported = true;
-      return;
     }
+    List<NativeBootstrap.Item> items = new ArrayList<>();
     List<String> nativesList = Commons.getFileList(fpJarLibs, COMMONS_CLASS);
     for (String aFile : nativesList) {
-      String copyMsg = "";
       boolean isExecutable = false;
       String inFile;
-      File outFile = null;
+      Class<?> classReference = COMMONS_CLASS;
       if (aFile.startsWith("//")) {
         continue;
       } else if (aFile.startsWith("/")) {
         String[] parts = aFile.split("@");
+        inFile = parts[0];
         if (parts.length > 1) {
-          inFile = parts[0];
           try {
-            COMMONS_CLASS = Class.forName(parts[1]);
+            classReference = Class.forName(parts[1]);
           } catch (ClassNotFoundException e) {
-            copyMsg = String.format(": failed: %s", e.getMessage());
-            inFile = null;
+            Debug.error("libsExport: %s: failed: %s", aFile, e.getMessage());
+            continue;
           }
-        } else {
-          inFile = aFile;
         }
         aFile = new File(inFile).getName();
       } else {
@@ -1558,30 +1574,18 @@ Software:
         }
         inFile = new File(fpJarLibs, aFile).getPath();
       }
-      if (inFile != null) {
-        outFile = new File(fLibsFolder, aFile);
-        try (FileOutputStream outFileStream = new FileOutputStream(outFile);
-             InputStream inStream = COMMONS_CLASS.getResourceAsStream(inFile.replace("\\", "/"))) {
-          copy(inStream, outFileStream);
-        } catch (Exception ex) {
-          copyMsg = String.format(": failed: %s", ex.getMessage());
-        }
-        copyMsg = String.format("libsExport: %s%s", aFile, copyMsg);
-      }
-      if (copyMsg.contains("failed")) {
-        FileManager.deleteFileOrFolder(fLibsFolder);
-        Debug.error(copyMsg);
-        break;
-      } else {
-        if (isExecutable) {
-          outFile.setExecutable(true);
-        }
-        if (!copyMsg.isEmpty()) {
-          Debug.log(3, copyMsg);
-        }
-      }
+      items.add(new NativeBootstrap.Item(inFile, classReference, aFile, isExecutable));
+    }
+    NativeBootstrap.Item openCV = OpenCV.getNativeItem();
+    if (openCV != null) {
+      items.add(openCV);
     }
-    areLibsExported = true;
+    int extracted = NativeBootstrap.extract("libs", fLibsFolder, items);
+    if (extracted > 0) {
+      didExport = true;
+    }
+    libsExportedTo = fLibsFolder;
+    return true;
   }
 
   private static boolean didExport = false;
@@ -0,0 +1,534 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.script.support;
+
+import org.sikuli.basics.Debug;
+import org.sikuli.basics.Settings;
+import org.sikuli.script.Element;
+import org.sikuli.script.Image;
+import org.sikuli.script.ObserveEvent;
+import org.sikuli.script.Region;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * INTERNAL USE: collects timings and counts of the find operations
+ * (only if Settings.FindMetrics is true)
+ * <p>
+ * timers (msec): capture (per region), match (per pattern and region),
+ * ocr (per searched text and region, per kind of OCR engine call)<br>
+ * counters: lastSeenHit, lastSeenMiss, repeat (scans while waiting), findFailed (per pattern and region)<br>
+ * observer callbacks: callback (msec from detection to start), callbackDropped (per region)
+ * <p>
+ * the values are exported through a {@link Sink} (see {@link #setSink(Sink, long)}), builtin:
+ * {@link CsvSink}, {@link JsonSink}, {@link JmxSink}
+ */
+public class FindMetrics {
+
+  private static final String me = "FindMetrics: ";
+
+  private FindMetrics() {
+  }
+
+  public static final String CAPTURE = "capture";
+  public static final String MATCH = "match";
+  public static final String OCR = "ocr";
+  public static final String LASTSEEN_HIT = "lastSeenHit";
+  public static final String LASTSEEN_MISS = "lastSeenMiss";
+  public static final String REPEAT = "repeat";
+  public static final String FINDFAILED = "findFailed";
+  public static final String CALLBACK = "callback";
+  public static final String CALLBACK_DROPPED = "callbackDropped";
+
+  public static final String SCOPE_ALL = "all";
+  public static final String SCOPE_PATTERN = "pattern";
+  public static final String SCOPE_REGION = "region";
+
+  private static final Map<String, Histogram> timers = new ConcurrentHashMap<>();
+  private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+  public static boolean isActive() {
+    return Settings.FindMetrics;
+  }
+
+  //<editor-fold desc="01 record">
+  public static void capture(Rectangle rect, IScreen screen, long nanos) {
+    if (!Settings.FindMetrics) {
+      return;
+    }
+    time(CAPTURE, SCOPE_ALL, "", nanos);
+    time(CAPTURE, SCOPE_REGION, regionName(rect, screen), nanos);
+  }
+
+  public static void match(Image pattern, Element where, long nanos) {
+    if (!Settings.FindMetrics) {
+      return;
+    }
+    time(MATCH, SCOPE_ALL, "", nanos);
+    time(MATCH, SCOPE_PATTERN, patternName(pattern), nanos);
+    time(MATCH, SCOPE_REGION, regionName(where), nanos);
+  }
+
+  /**
+   * a text search
+   *
+   * @param text  the searched text
+   * @param where the searched region
+   * @param nanos duration
+   */
+  public static void ocr(String text, Element where, long nanos) {
+    if (!Settings.FindMetrics) {
+      return;
+    }
+    time(OCR, SCOPE_PATTERN, text, nanos);
+    time(OCR, SCOPE_REGION, regionName(where), nanos);
+  }
+
+  /**
+   * one run of the OCR engine (not counted, if the result came from the cache)
+   *
+   * @param kind  text, lines, words, ...
+   * @param nanos duration
+   */
+  public static void ocrEngine(String kind, long nanos) {
+    if (!Settings.FindMetrics) {
+      return;
+    }
+    time(OCR, SCOPE_ALL, kind, nanos);
+  }
+
+  public static void lastSeen(Image pattern, Element where, boolean hit) {
+    count(hit ? LASTSEEN_HIT : LASTSEEN_MISS, pattern, where, 1);
+  }
+
+  public static void count(String metric, Image pattern, Element where, long value) {
+    if (!Settings.FindMetrics) {
+      return;
+    }
+    add(metric, SCOPE_ALL, "", value);
+    add(metric, SCOPE_PATTERN, patternName(pattern), value);
+    add(metric, SCOPE_REGION, regionName(where), value);
+  }
+
+  /**
+   * an observer callback is started (timer: from detection to start)
+   *
+   * @param event the event
+   */
+  public static void callback(ObserveEvent event) {
+    if (!Settings.FindMetrics) {
+      return;
+    }
+    long nanos = Math.max(0, event.getLatency()) * 1000000;
+    time(CALLBACK, SCOPE_ALL, "", nanos);
+    time(CALLBACK, SCOPE_REGION, regionName(event.getRegion()), nanos);
+  }
+
+  /**
+   * an observer callback is not run (queue full or replaced by a newer event)
+   *
+   * @param event the event
+   */
+  public static void callbackDropped(ObserveEvent event) {
+    if (!Settings.FindMetrics) {
+      return;
+    }
+    add(CALLBACK_DROPPED, SCOPE_ALL, "", 1);
+    add(CALLBACK_DROPPED, SCOPE_REGION, regionName(event.getRegion()), 1);
+  }
+
+  private static void time(String metric, String scope, String name, long nanos) {
+    timers.computeIfAbsent(key(metric, scope, name), k -> new Histogram()).record(nanos);
+  }
+
+  private static void add(String metric, String scope, String name, long value) {
+    counters.computeIfAbsent(key(metric, scope, name), k -> new LongAdder()).add(value);
+  }
+
+  private static String key(String metric, String scope, String name) {
+    return metric + "\t" + scope + "\t" + name;
+  }
+
+  private static String patternName(Image pattern) {
+    if (pattern == null) {
+      return "?";
+    }
+    String name = pattern.getName();
+    return name == null ? pattern.toString() : name;
+  }
+
+  private static String regionName(Element where) {
+    if (where == null) {
+      return "?";
+    }
+    if (where instanceof Region) {
+      return regionName(((Region) where).getRect(), ((Region) where).getScreen());
+    }
+    return String.format("I[%s]", where.getName());
+  }
+
+  private static String regionName(Rectangle rect, IScreen screen) {
+    return String.format("R[%d,%d %dx%d]%s", rect.x, rect.y, rect.width, rect.height,
+        screen == null ? "" : "@S(" + screen.getID() + ")");
+  }
+
+  public static void reset() {
+    timers.clear();
+    counters.clear();
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="02 histogram">
+
+  /**
+   * a lock free histogram with 4 sub-buckets per power of 2 (microseconds, about 20% resolution)
+   */
+  static class Histogram {
+    private static final int BUCKETS = 4 + 61 * 4;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(0);
+
+    void record(long nanos) {
+      long micros = Math.max(0, nanos / 1000);
+      buckets.incrementAndGet(bucket(micros));
+      count.increment();
+      total.add(micros);
+      min.accumulateAndGet(micros, Math::min);
+      max.accumulateAndGet(micros, Math::max);
+    }
+
+    static int bucket(long micros) {
+      if (micros < 4) {
+        return (int) micros;
+      }
+      int exp = 63 - Long.numberOfLeadingZeros(micros);
+      int sub = (int) ((micros >> (exp - 2)) & 3);
+      return 4 + (exp - 2) * 4 + sub;
+    }
+
+    static long bucketValue(int bucket) {
+      if (bucket < 4) {
+        return bucket;
+      }
+      int exp = (bucket - 4) / 4 + 2;
+      int sub = (bucket - 4) % 4;
+      long lower = ((long) (4 + sub)) << (exp - 2);
+      return lower + ((1L << (exp - 2)) - 1) / 2;
+    }
+
+    long percentile(double percent) {
+      long all = count.sum();
+      if (all == 0) {
+        return 0;
+      }
+      long wanted = Math.max(1, (long) Math.ceil(all * percent / 100));
+      long seen = 0;
+      for (int n = 0; n < BUCKETS; n++) {
+        seen += buckets.get(n);
+        if (seen >= wanted) {
+          return Math.min(bucketValue(n), max.get());
+        }
+      }
+      return max.get();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="03 snapshot">
+
+  /**
+   * one exported value: a timer (msec values) or a counter (only count)
+   */
+  public static class Entry {
+    public final String metric;
+    public final String scope;
+    public final String name;
+    public final boolean isTimer;
+    public final long count;
+    public final double total;
+    public final double mean;
+    public final double min;
+    public final double max;
+    public final double p50;
+    public final double p95;
+    public final double p99;
+
+    Entry(String key, long count) {
+      String[] parts = key.split("\t", 3);
+      metric = parts[0];
+      scope = parts[1];
+      name = parts[2];
+      isTimer = false;
+      this.count = count;
+      total = mean = min = max = p50 = p95 = p99 = 0;
+    }
+
+    Entry(String key, Histogram histogram) {
+      String[] parts = key.split("\t", 3);
+      metric = parts[0];
+      scope = parts[1];
+      name = parts[2];
+      isTimer = true;
+      count = histogram.count.sum();
+      total = histogram.total.sum() / 1000.0;
+      mean = count == 0 ? 0 : total / count;
+      min = count == 0 ? 0 : histogram.min.get() / 1000.0;
+      max = histogram.max.get() / 1000.0;
+      p50 = histogram.percentile(50) / 1000.0;
+      p95 = histogram.percentile(95) / 1000.0;
+      p99 = histogram.percentile(99) / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+      if (isTimer) {
+        return String.format(Locale.US, "%s %s %s: %d (mean %.1f p95 %.1f max %.1f msec)",
+            metric, scope, name, count, mean, p95, max);
+      }
+      return String.format("%s %s %s: %d", metric, scope, name, count);
+    }
+  }
+
+  /**
+   * @return the current values (sorted by metric, scope, name)
+   */
+  public static List<Entry> snapshot() {
+    List<Entry> entries = new ArrayList<>();
+    for (Map.Entry<String, Histogram> timer : timers.entrySet()) {
+      entries.add(new Entry(timer.getKey(), timer.getValue()));
+    }
+    for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+      entries.add(new Entry(counter.getKey(), counter.getValue().sum()));
+    }
+    entries.sort(Comparator.comparing((Entry e) -> e.metric).thenComparing(e -> e.scope).thenComparing(e -> e.name));
+    return entries;
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="04 export">
+
+  /**
+   * receives the current values on each export
+   */
+  public interface Sink {
+    void export(List<Entry> entries) throws IOException;
+  }
+
+  private static Sink sink = null;
+  private static ScheduledExecutorService exporter = null;
+  private static ScheduledFuture<?> exportTask = null;
+
+  /**
+   * export to the given sink every given seconds and at exit
+   * (also switches Settings.FindMetrics on)
+   *
+   * @param aSink   null: stop exporting
+   * @param seconds 0: only at exit or with {@link #export()}
+   */
+  public static synchronized void setSink(Sink aSink, long seconds) {
+    if (exportTask != null) {
+      exportTask.cancel(false);
+      exportTask = null;
+    }
+    sink = aSink;
+    if (sink == null) {
+      return;
+    }
+    Settings.FindMetrics = true;
+    if (seconds > 0) {
+      if (exporter == null) {
+        exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "SikuliX-FindMetrics");
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+      exportTask = exporter.scheduleAtFixedRate(FindMetrics::export, seconds, seconds, TimeUnit.SECONDS);
+    }
+  }
+
+  public static void export() {
+    Sink current = sink;
+    if (current == null) {
+      return;
+    }
+    try {
+      current.export(snapshot());
+    } catch (Exception e) {
+      Debug.error(me + "export: %s", e.getMessage());
+    }
+  }
+
+  /**
+   * writes all values as CSV (file is replaced on each export)
+   */
+  public static class CsvSink implements Sink {
+    private final File file;
+
+    public CsvSink(File file) {
+      this.file = file;
+    }
+
+    @Override
+    public void export(List<Entry> entries) throws IOException {
+      try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+        out.println("metric,scope,name,count,totalMsec,meanMsec,minMsec,maxMsec,p50Msec,p95Msec,p99Msec");
+        for (Entry entry : entries) {
+          out.printf(Locale.US, "%s,%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+              entry.metric, entry.scope, csv(entry.name), entry.count, entry.total, entry.mean,
+              entry.min, entry.max, entry.p50, entry.p95, entry.p99);
+        }
+      }
+    }
+
+    private static String csv(String value) {
+      if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+      }
+      return value;
+    }
+  }
+
+  /**
+   * writes all values as a JSON array (file is replaced on each export)
+   */
+  public static class JsonSink implements Sink {
+    private final File file;
+
+    public JsonSink(File file) {
+      this.file = file;
+    }
+
+    @Override
+    public void export(List<Entry> entries) throws IOException {
+      try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+        out.println("[");
+        for (int n = 0; n < entries.size(); n++) {
+          Entry entry = entries.get(n);
+          out.printf(Locale.US, "  {\"metric\": %s, \"scope\": %s, \"name\": %s, \"count\": %d",
+              json(entry.metric), json(entry.scope), json(entry.name), entry.count);
+          if (entry.isTimer) {
+            out.printf(Locale.US, ", \"totalMsec\": %.3f, \"meanMsec\": %.3f, \"minMsec\": %.3f, \"maxMsec\": %.3f"
+                    + ", \"p50Msec\": %.3f, \"p95Msec\": %.3f, \"p99Msec\": %.3f",
+                entry.total, entry.mean, entry.min, entry.max, entry.p50, entry.p95, entry.p99);
+          }
+          out.println(n < entries.size() - 1 ? "}," : "}");
+        }
+        out.println("]");
+      }
+    }
+
+    private static String json(String value) {
+      StringBuilder quoted = new StringBuilder("\"");
+      for (char c : value.toCharArray()) {
+        if (c == '"' || c == '\\') {
+          quoted.append('\\').append(c);
+        } else if (c < 0x20) {
+          quoted.append(String.format("\\u%04x", (int) c));
+        } else {
+          quoted.append(c);
+        }
+      }
+      return quoted.append('"').toString();
+    }
+  }
+
+  /**
+   * live view in JMX as org.sikuli:type=FindMetrics (export does nothing)
+   */
+  public static class JmxSink implements Sink, FindMetricsMXBean {
+
+    public JmxSink() {
+      try {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.sikuli:type=FindMetrics");
+        if (server.isRegistered(name)) {
+          server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+      } catch (Exception e) {
+        Debug.error(me + "JMX: not registered: %s", e.getMessage());
+      }
+    }
+
+    @Override
+    public void export(List<Entry> entries) {
+    }
+
+    private Map<String, Double> values(boolean timers, java.util.function.ToDoubleFunction<Entry> value) {
+      Map<String, Double> values = new TreeMap<>();
+      for (Entry entry : snapshot()) {
+        if (entry.isTimer == timers) {
+          values.put(entry.metric + " " + entry.scope + " " + entry.name, value.applyAsDouble(entry));
+        }
+      }
+      return values;
+    }
+
+    @Override
+    public Map<String, Double> getCounters() {
+      return values(false, entry -> entry.count);
+    }
+
+    @Override
+    public Map<String, Double> getTimerCounts() {
+      return values(true, entry -> entry.count);
+    }
+
+    @Override
+    public Map<String, Double> getMeanMsec() {
+      return values(true, entry -> entry.mean);
+    }
+
+    @Override
+    public Map<String, Double> getP95Msec() {
+      return values(true, entry -> entry.p95);
+    }
+
+    @Override
+    public Map<String, Double> getMaxMsec() {
+      return values(true, entry -> entry.max);
+    }
+
+    @Override
+    public void reset() {
+      FindMetrics.reset();
+    }
+  }
+
+  public interface FindMetricsMXBean {
+    Map<String, Double> getCounters();
+
+    Map<String, Double> getTimerCounts();
+
+    Map<String, Double> getMeanMsec();
+
+    Map<String, Double> getP95Msec();
+
+    Map<String, Double> getMaxMsec();
+
+    void reset();
+  }
+  //</editor-fold>
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.script.support;
+
+import org.sikuli.basics.Debug;
+import org.sikuli.basics.FileManager;
+import org.sikuli.basics.Settings;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * INTERNAL USE: existence checks of image files for ImagePath.find
+ * <p>
+ * ImagePath folders are listed once and then kept up to date by a WatchService,<br>
+ * jars are listed once (again only if the jar file changes),<br>
+ * http resources are checked and the answer is kept for some seconds.<br>
+ * A name not in a folder listing is checked with a stat of the file. The negative answer is kept
+ * until the watcher reports the name as created - only where the watcher can be trusted:
+ * not with a polling WatchService (Mac) and not on network or FAT volumes (these are stat'ed on every miss).<br>
+ * Only jar listings are kept across runs (folder listings are watched anyway).<br>
+ * Each check answers null, if the index cannot tell - the caller then has to check himself.
+ */
+public class ImageIndex {
+
+  private static final String me = "ImageIndex: ";
+  private static final int lvl = 3;
+
+  private static void log(int level, String message, Object... args) {
+    Debug.logx(level, me + message, args);
+  }
+
+  private static final int MAX_FOLDERS = 256;
+  private static final long JAR_RECHECK = 1000;
+  private static final long HTTP_RECHECK = 10000;
+
+  private static final boolean ignoreCase = Commons.runningWindows() || Commons.runningMac();
+
+  private static String nameKey(String name) {
+    return ignoreCase ? name.toLowerCase() : name;
+  }
+
+  /**
+   * forget everything (listings, watches, http answers)
+   */
+  public static synchronized void reset() {
+    for (Folder folder : folders.values()) {
+      if (folder.watchKey != null) {
+        folder.watchKey.cancel();
+      }
+    }
+    folders.clear();
+    jars.clear();
+    httpChecks.clear();
+  }
+
+  //<editor-fold desc="01 folders">
+  private static class Folder {
+    final Path path;
+    final Set<String> names = ConcurrentHashMap.newKeySet();
+    final Set<String> missing = ConcurrentHashMap.newKeySet();
+    final boolean trusted;
+    WatchKey watchKey = null;
+    volatile boolean valid = true;
+
+    Folder(Path path, boolean trusted) {
+      this.path = path;
+      this.trusted = trusted;
+    }
+  }
+
+  private static final Map<Path, Folder> folders = new ConcurrentHashMap<>();
+  private static WatchService watchService = null;
+  private static boolean watchFailed = false;
+
+  /**
+   * @param folder an ImagePath folder (only these are listed and watched)
+   * @param name   a file name relative to the folder
+   * @return whether the file exists, null if not known
+   */
+  public static Boolean exists(File folder, String name) {
+    if (!Settings.ImagePathIndex || folder == null || name == null) {
+      return null;
+    }
+    Path parent = folder.getAbsoluteFile().toPath().normalize();
+    Path path = parent.resolve(name).normalize();
+    if (!parent.equals(path.getParent())) {
+      return null; // subfolders are not listed
+    }
+    Folder listed = getFolder(parent);
+    if (listed == null) {
+      return null;
+    }
+    String key = nameKey(path.getFileName().toString());
+    if (listed.names.contains(key)) {
+      return true;
+    }
+    if (listed.missing.contains(key)) {
+      return false; // only kept if trusted: reset by the watcher on create
+    }
+    // not listed: only the file itself can tell
+    // (kept as missing before the stat: a create reported meanwhile resets it)
+    if (listed.trusted) {
+      listed.missing.add(key);
+    }
+    if (Files.exists(path)) {
+      listed.names.add(key);
+      listed.missing.remove(key);
+      return true;
+    }
+    return false;
+  }
+
+  private static Folder getFolder(Path path) {
+    Folder folder = folders.get(path);
+    if (folder != null && folder.valid) {
+      return folder;
+    }
+    synchronized (ImageIndex.class) {
+      folder = folders.get(path);
+      if (folder != null && folder.valid) {
+        return folder;
+      }
+      if (folders.size() >= MAX_FOLDERS || !Files.isDirectory(path)) {
+        return null;
+      }
+      WatchService watcher = getWatchService();
+      if (watcher == null) {
+        return null;
+      }
+      folder = new Folder(path, isTrusted(watcher, path));
+      try {
+        // register first, so nothing created while listing is missed
+        folder.watchKey = path.register(watcher, ENTRY_CREATE, ENTRY_DELETE, OVERFLOW);
+        list(folder);
+      } catch (IOException e) {
+        log(-1, "folder: %s (%s)", path, e.getMessage());
+        if (folder.watchKey != null) {
+          folder.watchKey.cancel();
+        }
+        return null;
+      }
+      folders.put(path, folder);
+      log(lvl + 1, "folder: %s (%d names)", path, folder.names.size());
+      return folder;
+    }
+  }
+
+  private static final String[] untrustedTypes = new String[]{"nfs", "cifs", "smb", "fat", "msdos", "fuse", "9p"};
+
+  // a polling watcher (Mac) reports late, network and FAT volumes might not report all changes
+  private static boolean isTrusted(WatchService watcher, Path path) {
+    if (watcher.getClass().getName().contains("Polling")) {
+      return false;
+    }
+    try {
+      String type = Files.getFileStore(path).type().toLowerCase();
+      for (String untrusted : untrustedTypes) {
+        if (type.contains(untrusted)) {
+          return false;
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static void list(Folder folder) throws IOException {
+    Set<String> names = new HashSet<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder.path)) {
+      for (Path entry : stream) {
+        names.add(nameKey(entry.getFileName().toString()));
+      }
+    }
+    folder.names.retainAll(names);
+    folder.names.addAll(names);
+  }
+
+  private static WatchService getWatchService() {
+    if (watchService == null && !watchFailed) {
+      try {
+        watchService = FileSystems.getDefault().newWatchService();
+      } catch (IOException e) {
+        log(-1, "no WatchService: %s", e.getMessage());
+        watchFailed = true;
+        return null;
+      }
+      Thread watcher = new Thread(ImageIndex::watch, "SikuliX-ImageIndex");
+      watcher.setDaemon(true);
+      watcher.start();
+    }
+    return watchService;
+  }
+
+  private static void watch() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      Folder folder = null;
+      for (Folder each : folders.values()) {
+        if (each.watchKey == key) {
+          folder = each;
+          break;
+        }
+      }
+      List<WatchEvent<?>> events = key.pollEvents();
+      if (folder == null) {
+        key.cancel();
+        continue;
+      }
+      for (WatchEvent<?> event : events) {
+        if (event.kind() == OVERFLOW) {
+          folder.missing.clear();
+          try {
+            list(folder);
+          } catch (IOException e) {
+            folder.valid = false;
+          }
+          continue;
+        }
+        String name = nameKey(((Path) event.context()).getFileName().toString());
+        if (event.kind() == ENTRY_CREATE) {
+          folder.names.add(name);
+          folder.missing.remove(name);
+        } else if (event.kind() == ENTRY_DELETE) {
+          folder.names.remove(name);
+        }
+      }
+      if (!key.reset()) {
+        // folder is gone - listed again on next use
+        folder.valid = false;
+        folders.remove(folder.path, folder);
+      }
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="02 jars and http">
+  private static class Jar {
+    final File file;
+    final long stamp;
+    final Set<String> names;
+    long checked;
+
+    Jar(File file, long stamp, Set<String> names) {
+      this.file = file;
+      this.stamp = stamp;
+      this.names = names;
+      checked = System.currentTimeMillis();
+    }
+  }
+
+  private static final Map<File, Jar> jars = new ConcurrentHashMap<>();
+  private static final Map<String, long[]> httpChecks = new ConcurrentHashMap<>();
+
+  /**
+   * @param url a jar: or http(s): URL
+   * @return whether the resource exists, null if not known
+   */
+  public static Boolean exists(URL url) {
+    if (!Settings.ImagePathIndex || url == null) {
+      return null;
+    }
+    String proto = url.getProtocol();
+    if ("jar".equals(proto)) {
+      return existsInJar(url);
+    }
+    if (proto.startsWith("http")) {
+      return existsHttp(url);
+    }
+    return null;
+  }
+
+  private static Boolean existsInJar(URL url) {
+    String[] parts = url.getPath().split("!/");
+    if (parts.length != 2 || !parts[0].startsWith("file:")) {
+      return null; // nested jars are not listed
+    }
+    String entry;
+    try {
+      entry = URLDecoder.decode(parts[1], "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      return null;
+    }
+    Jar jar = getJar(Commons.urlToFile(url));
+    if (jar == null) {
+      return null;
+    }
+    return jar.names.contains(entry);
+  }
+
+  private static Jar getJar(File file) {
+    file = file.getAbsoluteFile();
+    Jar jar = jars.get(file);
+    long now = System.currentTimeMillis();
+    if (jar != null && now - jar.checked < JAR_RECHECK) {
+      return jar;
+    }
+    long stamp = file.lastModified() ^ file.length();
+    if (jar != null && jar.stamp == stamp) {
+      jar.checked = now;
+      return jar;
+    }
+    synchronized (ImageIndex.class) {
+      loadStored();
+      Set<String> names = stored.get(file.getPath() + "\t" + stamp);
+      if (names == null) {
+        names = new HashSet<>();
+        try (JarFile jarFile = new JarFile(file)) {
+          Enumeration<JarEntry> entries = jarFile.entries();
+          while (entries.hasMoreElements()) {
+            JarEntry jarEntry = entries.nextElement();
+            if (!jarEntry.isDirectory()) {
+              names.add(jarEntry.getName());
+            }
+          }
+        } catch (IOException e) {
+          log(-1, "jar: %s (%s)", file, e.getMessage());
+          return null;
+        }
+        storedChanged = true;
+      }
+      jar = new Jar(file, stamp, names);
+      jars.put(file, jar);
+      log(lvl + 1, "jar: %s (%d names)", file, names.size());
+      return jar;
+    }
+  }
+
+  private static Boolean existsHttp(URL url) {
+    String key = url.toExternalForm();
+    long now = System.currentTimeMillis();
+    long[] check = httpChecks.get(key);
+    if (check == null || now - check[1] > HTTP_RECHECK) {
+      check = new long[]{FileManager.isUrlUseabel(url), now};
+      httpChecks.put(key, check);
+    }
+    return check[0] > 0;
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="03 stored jar listings">
+  private static Map<String, Set<String>> stored = null;
+  private static boolean storedChanged = false;
+
+  private static void loadStored() {
+    if (stored != null) {
+      return;
+    }
+    stored = new HashMap<>();
+    if (Settings.ImagePathIndexFile == null) {
+      return;
+    }
+    File file = new File(Settings.ImagePathIndexFile);
+    if (!file.exists()) {
+      return;
+    }
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+      Set<String> names = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("@")) {
+          names = new HashSet<>();
+          stored.put(line.substring(1), names);
+        } else if (names != null && !line.isEmpty()) {
+          names.add(line);
+        }
+      }
+      log(lvl, "loaded: %s (%d jars)", file, stored.size());
+    } catch (IOException e) {
+      log(-1, "load: %s (%s)", file, e.getMessage());
+    }
+  }
+
+  /**
+   * write the jar listings to Settings.ImagePathIndexFile (if given and something changed)
+   */
+  public static synchronized void save() {
+    if (Settings.ImagePathIndexFile == null || !storedChanged) {
+      return;
+    }
+    File file = new File(Settings.ImagePathIndexFile);
+    try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+        new FileOutputStream(file), StandardCharsets.UTF_8))) {
+      for (Jar jar : jars.values()) {
+        writer.println("@" + jar.file.getPath() + "\t" + jar.stamp);
+        for (String name : jar.names) {
+          writer.println(name);
+        }
+      }
+      storedChanged = false;
+      log(lvl, "saved: %s (%d jars)", file, jars.size());
+    } catch (IOException e) {
+      log(-1, "save: %s (%s)", file, e.getMessage());
+    }
+  }
+  //</editor-fold>
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.script.support;
+
+import org.sikuli.basics.AnimatorLinearInterpolation;
+import org.sikuli.basics.AnimatorOutQuarticEase;
+import org.sikuli.basics.AnimatorTimeValueFunction;
+import org.sikuli.basics.Debug;
+import org.sikuli.basics.Settings;
+import org.sikuli.script.Location;
+
+import java.util.concurrent.*;
+
+/**
+ * INTERNAL USE: smooth mouse moves paced by a timer
+ * <p>
+ * the positions are emitted at Settings.MoveMouseRate per second along the path
+ * given by Settings.MoveMouseShape (linear, ease, bezier).<br>
+ * A new move of the same mouse cancels a running one and starts from where that one stopped.
+ */
+public class MouseMotion {
+
+  public static final String LINEAR = "linear";
+  public static final String EASE = "ease";
+  public static final String BEZIER = "bezier";
+
+  /**
+   * receives the positions of a move
+   */
+  public interface Mover {
+    void moveTo(int x, int y);
+  }
+
+  private static ScheduledExecutorService timer = null;
+
+  private static synchronized ScheduledExecutorService getTimer() {
+    if (timer == null) {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "SikuliX-MouseMotion");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.setRemoveOnCancelPolicy(true);
+      timer = executor;
+    }
+    return timer;
+  }
+
+  private final Mover mover;
+  private Motion current = null;
+
+  public MouseMotion(Mover mover) {
+    this.mover = mover;
+  }
+
+  /**
+   * move along the path in the given time and wait until done
+   *
+   * @param src  start (ignored, if a running move is taken over)
+   * @param dest end
+   * @param ms   duration
+   * @return the last position or null, if the move was cancelled by a newer move
+   */
+  public Location move(Location src, Location dest, long ms) {
+    Motion motion;
+    synchronized (this) {
+      if (current != null && !current.isDone()) {
+        Location last = current.cancel();
+        if (last != null) {
+          src = last;
+        }
+      }
+      motion = new Motion(src, dest, ms, Settings.MoveMouseShape);
+      current = motion;
+      motion.start(Math.max(1, Settings.MoveMouseRate));
+    }
+    return motion.await(ms);
+  }
+
+  /**
+   * cancel the running move (if any)
+   */
+  public synchronized void cancel() {
+    if (current != null) {
+      current.cancel();
+      current = null;
+    }
+  }
+
+  private class Motion implements Runnable {
+    private final Location src;
+    private final Location dest;
+    private final AnimatorTimeValueFunction progress;
+    private final boolean isBezier;
+    private final double ctrl1X, ctrl1Y, ctrl2X, ctrl2Y;
+    private final CompletableFuture<Location> done = new CompletableFuture<>();
+    private volatile ScheduledFuture<?> task = null;
+    private long begin = -1;
+    private volatile Location last = null;
+
+    Motion(Location src, Location dest, long ms, String shape) {
+      this.src = src;
+      this.dest = dest;
+      if (LINEAR.equalsIgnoreCase(shape)) {
+        progress = new AnimatorLinearInterpolation(0, 1, ms);
+      } else {
+        progress = new AnimatorOutQuarticEase(0, 1, ms);
+      }
+      isBezier = BEZIER.equalsIgnoreCase(shape);
+      // control points at 1/3 and 2/3 of the way, pushed aside to make a slight arc
+      double dx = dest.x - src.x;
+      double dy = dest.y - src.y;
+      double bend = 0.2;
+      ctrl1X = src.x + dx / 3 - dy * bend;
+      ctrl1Y = src.y + dy / 3 + dx * bend;
+      ctrl2X = src.x + 2 * dx / 3 - dy * bend;
+      ctrl2Y = src.y + 2 * dy / 3 + dx * bend;
+    }
+
+    void start(int rate) {
+      task = getTimer().scheduleAtFixedRate(this, 0, Math.max(1, 1000000 / rate), TimeUnit.MICROSECONDS);
+      if (done.isDone()) {
+        task.cancel(false);
+      }
+    }
+
+    private void finish(Location result, Throwable error) {
+      if (task != null) {
+        task.cancel(false);
+      }
+      if (error == null) {
+        done.complete(result);
+      } else {
+        done.completeExceptionally(error);
+      }
+    }
+
+    @Override
+    public void run() {
+      if (done.isDone()) {
+        return;
+      }
+      try {
+        long now = System.currentTimeMillis();
+        if (begin < 0) {
+          begin = now;
+        }
+        long elapsed = now - begin;
+        Location next;
+        if (progress.isEnd(elapsed)) {
+          next = dest;
+        } else {
+          next = at(progress.getValue(elapsed));
+        }
+        if (last == null || next.x != last.x || next.y != last.y) {
+          mover.moveTo(next.x, next.y);
+          last = next;
+        }
+        if (next == dest) {
+          finish(dest, null);
+        }
+      } catch (Exception ex) {
+        finish(null, ex);
+      }
+    }
+
+    private Location at(double t) {
+      if (!isBezier) {
+        return new Location(src.x + (dest.x - src.x) * t, src.y + (dest.y - src.y) * t);
+      }
+      double u = 1 - t;
+      double x = u * u * u * src.x + 3 * u * u * t * ctrl1X + 3 * u * t * t * ctrl2X + t * t * t * dest.x;
+      double y = u * u * u * src.y + 3 * u * u * t * ctrl1Y + 3 * u * t * t * ctrl2Y + t * t * t * dest.y;
+      return new Location(x, y);
+    }
+
+    boolean isDone() {
+      return done.isDone();
+    }
+
+    Location cancel() {
+      finish(null, null);
+      return last;
+    }
+
+    Location await(long ms) {
+      try {
+        return done.get(ms + 1000, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException ex) {
+        Debug.error("MouseMotion: move to %s did not finish in time", dest);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException ex) {
+        Debug.error("MouseMotion: move to %s: %s", dest, ex.getCause());
+      }
+      cancel();
+      return last;
+    }
+  }
+}
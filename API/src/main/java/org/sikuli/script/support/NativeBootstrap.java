@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.script.support;
+
+import org.sikuli.basics.Debug;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * INTERNAL USE: extraction of the bundled native libraries and data files (OpenCV, SikulixLibs, tessdata)
+ * <p>
+ * Each extracted file is recorded in a manifest in its folder (size, modification time and SHA-256).<br>
+ * A file is valid, if size and modification time still match the manifest - checked with one stat, no reading.<br>
+ * Files are written to a temp file and then renamed, so a file is either complete or missing.<br>
+ * The files of one extraction are written in parallel, a whole stage may run in the background.<br>
+ * The time of each stage is kept (see getTimings()).
+ */
+public class NativeBootstrap {
+
+  private static final String me = "NativeBootstrap: ";
+  private static final int lvl = 3;
+
+  private static void log(int level, String message, Object... args) {
+    Debug.logx(level, me + message, args);
+  }
+
+  static final String MANIFEST = "sxmanifest.txt";
+  static final String TEMP = ".sxtemp";
+
+  //<editor-fold desc="01 timings">
+  private static final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+  /**
+   * @return milliseconds per stage (in the sequence the stages finished)
+   */
+  public static Map<String, Long> getTimings() {
+    synchronized (timings) {
+      return new LinkedHashMap<>(timings);
+    }
+  }
+
+  static void timing(String stage, long start) {
+    long time = System.currentTimeMillis() - start;
+    timings.put(stage, time);
+    log(lvl, "%s: %d msec", stage, time);
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="02 background">
+  private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "SikuliX-Bootstrap");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * run a stage in the background
+   *
+   * @param stage name for the timings
+   * @param task  answers success
+   * @return to be given to await()
+   */
+  public static Future<Boolean> inBackground(String stage, Supplier<Boolean> task) {
+    return executor.submit(() -> {
+      long start = System.currentTimeMillis();
+      try {
+        return task.get();
+      } finally {
+        timing(stage, start);
+      }
+    });
+  }
+
+  /**
+   * wait for a stage started with inBackground()
+   *
+   * @param stage the stage
+   * @return false if the stage failed
+   */
+  public static boolean await(Future<Boolean> stage) {
+    try {
+      return stage.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      log(-1, "failed: %s", e.getCause());
+      return false;
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="03 extraction">
+
+  /**
+   * a resource to be extracted to a file with the given name
+   */
+  public static class Item {
+    final String resource;
+    final Class<?> classReference;
+    final String name;
+    final boolean executable;
+
+    public Item(String resource, Class<?> classReference, String name, boolean executable) {
+      this.resource = resource.replace("\\", "/");
+      this.classReference = classReference;
+      this.name = name;
+      this.executable = executable;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * extract the items not yet valid in the folder (in parallel)
+   *
+   * @param stage  name for the timings
+   * @param folder target folder (created if needed)
+   * @param items  the resources
+   * @return number of files extracted now, -1 if any extraction failed
+   */
+  public static int extract(String stage, File folder, List<Item> items) {
+    long start = System.currentTimeMillis();
+    if (!folder.exists() && !folder.mkdirs()) {
+      log(-1, "%s: folder not available: %s", stage, folder);
+      return -1;
+    }
+    synchronized (NativeBootstrap.class) {
+      removeTemps(folder);
+      Manifest manifest = new Manifest(folder);
+      List<Item> todo = new ArrayList<>();
+      for (Item item : items) {
+        if (!manifest.isValid(item.name)) {
+          todo.add(item);
+        }
+      }
+      int failed = 0;
+      if (!todo.isEmpty()) {
+        List<Future<String>> results = new ArrayList<>();
+        for (Item item : todo) {
+          results.add(executor.submit(() -> extract(folder, item, manifest)));
+        }
+        for (int n = 0; n < todo.size(); n++) {
+          String error;
+          try {
+            error = results.get(n).get();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+          } catch (ExecutionException e) {
+            error = "" + e.getCause();
+          }
+          if (error != null) {
+            log(-1, "%s: %s: failed: %s", stage, todo.get(n), error);
+            failed++;
+          } else {
+            log(lvl, "%s: extracted: %s", stage, todo.get(n));
+          }
+        }
+        manifest.save();
+      }
+      timing(stage, start);
+      return failed > 0 ? -1 : todo.size();
+    }
+  }
+
+  /**
+   * extract the item again (e.g. after the file could not be loaded)
+   *
+   * @param folder target folder
+   * @param item   the resource
+   * @return false if the file is the same as before (verified by its checksum) or the extraction failed
+   */
+  public static boolean repair(File folder, Item item) {
+    synchronized (NativeBootstrap.class) {
+      Manifest manifest = new Manifest(folder);
+      String expected = manifest.checksum(item.name);
+      if (expected != null && expected.equals(checksum(new File(folder, item.name)))) {
+        return false;
+      }
+      String error = extract(folder, item, manifest);
+      manifest.save();
+      if (error != null) {
+        log(-1, "repair: %s: failed: %s", item, error);
+        return false;
+      }
+      log(lvl, "repair: extracted again: %s", new File(folder, item.name));
+      return true;
+    }
+  }
+
+  private static String extract(File folder, Item item, Manifest manifest) {
+    File file = new File(folder, item.name);
+    File temp = new File(folder, item.name + "." + ProcessHandle.current().pid() + TEMP);
+    file.getParentFile().mkdirs();
+    try (InputStream in = item.classReference.getResourceAsStream(item.resource)) {
+      if (in == null) {
+        return "resource not found: " + item.resource;
+      }
+      MessageDigest digest = newDigest();
+      try (OutputStream out = new DigestOutputStream(new FileOutputStream(temp), digest)) {
+        in.transferTo(out);
+      }
+      if (item.executable) {
+        temp.setExecutable(true);
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      manifest.put(item.name, file, hex(digest.digest()));
+      return null;
+    } catch (IOException e) {
+      temp.delete();
+      return e.getMessage();
+    }
+  }
+
+  // left over by a crashed process (a minute is long enough for a running one to finish its file)
+  private static void removeTemps(File folder) {
+    long before = System.currentTimeMillis() - 60000;
+    File[] temps = folder.listFiles((dir, name) -> name.endsWith(TEMP) && new File(dir, name).lastModified() < before);
+    if (temps != null) {
+      for (File temp : temps) {
+        temp.delete();
+      }
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="04 manifest">
+  private static class Manifest {
+    private final File file;
+    private final Map<String, String[]> entries = new TreeMap<>();
+    private boolean changed = false;
+
+    Manifest(File folder) {
+      file = new File(folder, MANIFEST);
+      if (file.exists()) {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            String[] fields = line.split("\t");
+            if (fields.length == 4) {
+              entries.put(fields[0], fields);
+            }
+          }
+        } catch (IOException e) {
+          entries.clear();
+        }
+      }
+    }
+
+    synchronized boolean isValid(String name) {
+      String[] entry = entries.get(name);
+      if (entry == null) {
+        return false;
+      }
+      File extracted = new File(file.getParentFile(), name);
+      return entry[1].equals("" + extracted.length()) && entry[2].equals("" + extracted.lastModified());
+    }
+
+    synchronized String checksum(String name) {
+      String[] entry = entries.get(name);
+      return entry == null ? null : entry[3];
+    }
+
+    synchronized void put(String name, File extracted, String checksum) {
+      entries.put(name, new String[]{name, "" + extracted.length(), "" + extracted.lastModified(), checksum});
+      changed = true;
+    }
+
+    synchronized void save() {
+      if (!changed) {
+        return;
+      }
+      File temp = new File(file.getParentFile(), MANIFEST + "." + ProcessHandle.current().pid() + TEMP);
+      try {
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+          for (String[] entry : entries.values()) {
+            writer.write(String.join("\t", entry));
+            writer.write("\n");
+          }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        changed = false;
+      } catch (IOException e) {
+        temp.delete();
+        log(-1, "manifest not saved: %s (%s)", file, e.getMessage());
+      }
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String checksum(File file) {
+    MessageDigest digest = newDigest();
+    try (InputStream in = new DigestInputStream(new FileInputStream(file), digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    } catch (IOException e) {
+      return null;
+    }
+    return hex(digest.digest());
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder();
+    for (byte b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="05 probes">
+  private static final String PROBES = "sxprobes.txt";
+
+  /**
+   * the output of an external program (e.g. a version check) kept as long as the program file is not changed
+   *
+   * @param folder  where the answers are kept
+   * @param command the program name (searched in PATH)
+   * @param probe   runs the program and answers its output (null if not to be kept)
+   * @return the output
+   */
+  public static String probe(File folder, String command, Supplier<String> probe) {
+    long start = System.currentTimeMillis();
+    File program = findInPath(command);
+    if (program == null) {
+      String output = probe.get();
+      timing(command, start);
+      return output;
+    }
+    String stamp = program.getAbsolutePath() + "\t" + program.length() + "\t" + program.lastModified();
+    Properties probes = new Properties();
+    File probesFile = new File(folder, PROBES);
+    if (probesFile.exists()) {
+      try (Reader reader = Files.newBufferedReader(probesFile.toPath(), StandardCharsets.UTF_8)) {
+        probes.load(reader);
+      } catch (IOException e) {
+        probes.clear();
+      }
+    }
+    String kept = probes.getProperty(command);
+    if (kept != null && kept.startsWith(stamp + "\t")) {
+      timing(command, start);
+      return kept.substring(stamp.length() + 1);
+    }
+    String output = probe.get();
+    if (output != null && (folder.exists() || folder.mkdirs())) {
+      probes.setProperty(command, stamp + "\t" + output);
+      try (Writer writer = Files.newBufferedWriter(probesFile.toPath(), StandardCharsets.UTF_8)) {
+        probes.store(writer, null);
+      } catch (IOException e) {
+        log(-1, "probe not kept: %s (%s)", probesFile, e.getMessage());
+      }
+    }
+    timing(command, start);
+    return output;
+  }
+
+  private static File findInPath(String command) {
+    String path = System.getenv("PATH");
+    if (path == null) {
+      return null;
+    }
+    for (String folder : path.split(File.pathSeparator)) {
+      File program = new File(folder, command);
+      if (program.isFile() && program.canExecute()) {
+        return program;
+      }
+    }
+    return null;
+  }
+  //</editor-fold>
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.script.support;
+
+import org.sikuli.basics.Debug;
+import org.sikuli.basics.Settings;
+import org.sikuli.script.ObserveEvent;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * INTERNAL USE: runs the ObserverCallBacks apart from the observing (scanning) thread
+ * (not with the default policy SYNC: the callbacks run on the observing thread as ever)
+ * <p>
+ * The callbacks of one observed region run one after the other in the sequence of the events
+ * (a lane per region with a queue of at most Settings.ObserveCallbackQueue events).<br>
+ * What happens with an event, when its lane's queue is full, depends on the policy of the event's observer
+ * (see {@link Policy}, set per observer name with setPolicy(), default Settings.ObserveCallbackPolicy).<br>
+ * Events still waiting, when the observer is stopped, are dropped (see cancel()).
+ * <p>
+ * The event gets the time, when its callback is started (ObserveEvent.getDispatchTime()),
+ * the latency is recorded with FindMetrics (callback).
+ */
+public class ObserveDispatcher {
+
+  private static final String me = "ObserveDispatcher: ";
+  private static final int lvl = 3;
+
+  private static void log(int level, String message, Object... args) {
+    Debug.logx(level, me + message, args);
+  }
+
+  /**
+   * how the callback of an event is run (apart from SYNC: what to do, when the queue of its region is full)
+   */
+  public enum Policy {
+    /**
+     * the observing waits until there is space
+     */
+    BLOCK,
+    /**
+     * the oldest waiting event is dropped
+     */
+    DROP_OLDEST,
+    /**
+     * a waiting event of the same observer is replaced by the new one (also when the queue is not full)
+     */
+    COALESCE,
+    /**
+     * the callback is run directly on the observing thread (default)
+     */
+    SYNC
+  }
+
+  private static class Pending {
+    final ObserveEvent event;
+    final Runnable callback;
+    final long generation;
+
+    Pending(ObserveEvent event, Runnable callback, long generation) {
+      this.event = event;
+      this.callback = callback;
+      this.generation = generation;
+    }
+  }
+
+  private static class Lane {
+    final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    volatile Thread running = null;
+    boolean scheduled = false;
+    long generation = 0; // counted up with each cancel: older events are not run anymore
+  }
+
+  private static final Map<Object, Lane> lanes = Collections.synchronizedMap(new WeakHashMap<>());
+  private static final Map<String, Policy> policies = new ConcurrentHashMap<>();
+
+  private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "SikuliX-Observe-Callback");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * set the policy for the callbacks of the named observer
+   *
+   * @param name   the observer's name (as returned by onAppear, onVanish, onChange)
+   * @param policy BLOCK, DROP_OLDEST, COALESCE or SYNC (null: back to Settings.ObserveCallbackPolicy)
+   */
+  public static void setPolicy(String name, Policy policy) {
+    if (policy == null) {
+      policies.remove(name);
+    } else {
+      policies.put(name, policy);
+    }
+  }
+
+  public static Policy getPolicy(String name) {
+    Policy policy = name == null ? null : policies.get(name);
+    if (policy != null) {
+      return policy;
+    }
+    try {
+      return Policy.valueOf(Settings.ObserveCallbackPolicy.toUpperCase());
+    } catch (Exception e) {
+      return Policy.SYNC;
+    }
+  }
+
+  /**
+   * run the callback for the event according to its observer's policy
+   *
+   * @param owner    the lane (the observer of a region)
+   * @param event    the event
+   * @param callback calls the ObserverCallBack
+   */
+  public static void dispatch(Object owner, ObserveEvent event, Runnable callback) {
+    Policy policy = getPolicy(event.getName());
+    Lane lane = lanes.computeIfAbsent(owner, key -> new Lane());
+    if (policy == Policy.SYNC || lane.running == Thread.currentThread()) {
+      // in the callback itself (e.g. a handler calling observe()) it would wait for itself
+      run(new Pending(event, callback, 0));
+      return;
+    }
+    int max = Math.max(1, Settings.ObserveCallbackQueue);
+    synchronized (lane) {
+      long generation = lane.generation;
+      if (policy == Policy.COALESCE) {
+        Iterator<Pending> waiting = lane.queue.iterator();
+        while (waiting.hasNext()) {
+          Pending pending = waiting.next();
+          if (pending.event.getName().equals(event.getName())) {
+            waiting.remove();
+            dropped(pending, "coalesced");
+          }
+        }
+      }
+      while (lane.queue.size() >= max) {
+        if (policy == Policy.BLOCK) {
+          try {
+            lane.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          if (lane.generation != generation) {
+            dropped(new Pending(event, callback, generation), "stopped");
+            return;
+          }
+        } else {
+          dropped(lane.queue.poll(), "dropped");
+        }
+      }
+      lane.queue.add(new Pending(event, callback, generation));
+      if (!lane.scheduled) {
+        lane.scheduled = true;
+        executor.execute(() -> drain(lane));
+      }
+    }
+  }
+
+  /**
+   * wait until the callbacks waiting for the owner have been run
+   * (e.g. at the end of a foreground observe)
+   *
+   * @param owner the lane
+   */
+  public static void await(Object owner) {
+    Lane lane = lanes.get(owner);
+    if (lane == null || lane.running == Thread.currentThread()) {
+      return;
+    }
+    synchronized (lane) {
+      while (lane.scheduled) {
+        try {
+          lane.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * drop the events waiting for the owner (the observer was stopped)<br>
+   * a callback already running is not interrupted
+   *
+   * @param owner the lane
+   */
+  public static void cancel(Object owner) {
+    Lane lane = lanes.get(owner);
+    if (lane == null) {
+      return;
+    }
+    synchronized (lane) {
+      lane.generation++;
+      Pending pending;
+      while ((pending = lane.queue.poll()) != null) {
+        dropped(pending, "stopped");
+      }
+      lane.notifyAll();
+    }
+  }
+
+  private static void drain(Lane lane) {
+    while (true) {
+      Pending pending;
+      synchronized (lane) {
+        pending = lane.queue.poll();
+        if (pending == null) {
+          lane.scheduled = false;
+          lane.running = null;
+          lane.notifyAll();
+          return;
+        }
+        lane.running = Thread.currentThread();
+        lane.notifyAll();
+        if (pending.generation != lane.generation) {
+          dropped(pending, "stopped");
+          continue;
+        }
+      }
+      run(pending);
+    }
+  }
+
+  private static void run(Pending pending) {
+    pending.event.setDispatchTime(System.currentTimeMillis());
+    FindMetrics.callback(pending.event);
+    try {
+      pending.callback.run();
+    } catch (Exception e) {
+      log(-1, "%s: %s", pending.event.getName(), e);
+    }
+  }
+
+  private static void dropped(Pending pending, String reason) {
+    log(lvl, "%s: %s (%s)", reason, pending.event.getName(), pending.event.getType());
+    FindMetrics.callbackDropped(pending.event);
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.script.support;
+
+import org.sikuli.basics.Debug;
+import org.sikuli.basics.Settings;
+import org.sikuli.script.Region;
+import org.sikuli.script.ScreenImage;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * INTERNAL USE: runs the background observers (Region.observeInBackground)
+ * <p>
+ * One scheduler thread looks after all background observers. The observers due at a tick are grouped per screen:
+ * the union of their regions is captured once and each observer gets its part as a view of this capture
+ * (BufferedImage.getSubimage - no pixels copied).<br>
+ * The Observer.update calls run on a pool of Settings.ObserveThreads threads.
+ * An observer is never updated again before its last update has finished.
+ */
+public class ObserveScheduler {
+
+  private static final String me = "ObserveScheduler: ";
+  private static final int lvl = 3;
+
+  private static void log(int level, String message, Object... args) {
+    Debug.logx(level, me + message, args);
+  }
+
+  private static class Observation {
+    final Region region;
+    final long period;
+    final long stopTime;
+    final String duration;
+    volatile long nextTime = 0;
+    volatile boolean busy = false;
+
+    // on a grid of the period: observers with the same scan rate are due at the same time
+    void next(long after) {
+      nextTime = (after / period + 1) * period;
+    }
+
+    Observation(Region region, double secs) {
+      this.region = region;
+      float rate = region.getObserveScanRate();
+      period = (long) (1000.0 / (rate > 0 ? rate : Settings.ObserveScanRate));
+      long now = System.currentTimeMillis();
+      stopTime = secs * 1000 >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + (long) (secs * 1000);
+      duration = secs + " seconds";
+    }
+  }
+
+  // observers due within this time are captured with the current tick
+  private static final long SLACK = 15;
+
+  private static final List<Observation> observations = new CopyOnWriteArrayList<>();
+  private static volatile Thread scheduler = null;
+  private static ThreadPoolExecutor workers = null;
+
+  /**
+   * start observing the region in the background (the region's observer must exist)
+   *
+   * @param region the region
+   * @param secs   time in seconds the observer should run
+   */
+  public static synchronized void start(Region region, double secs) {
+    region.getObserver().initialize();
+    Observing.addRunningObserver(region);
+    observations.add(new Observation(region, secs));
+    log(lvl, "started: %s for %s seconds (now %d)", region.toStringShort(), secs, observations.size());
+    if (workers == null) {
+      int threads = Settings.ObserveThreads > 0 ? Settings.ObserveThreads : Runtime.getRuntime().availableProcessors();
+      workers = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          runnable -> {
+            Thread thread = new Thread(runnable, "SikuliX-Observe-Update");
+            thread.setDaemon(true);
+            return thread;
+          });
+      workers.allowCoreThreadTimeOut(true);
+    }
+    if (scheduler == null) {
+      scheduler = new Thread(ObserveScheduler::run, "SikuliX-Observe");
+      scheduler.setDaemon(true);
+      scheduler.start();
+    } else {
+      LockSupport.unpark(scheduler);
+    }
+  }
+
+  /**
+   * @return number of background observers running
+   */
+  public static int size() {
+    return observations.size();
+  }
+
+  private static void run() {
+    while (true) {
+      long now = System.currentTimeMillis();
+      long wakeUp = now + 1000;
+      Map<IScreen, List<Observation>> due = new LinkedHashMap<>();
+      for (Observation observation : observations) {
+        if (!observation.region.isObserving()) {
+          finish(observation, "stopped");
+          continue;
+        }
+        if (now >= observation.stopTime) {
+          if (!observation.busy) {
+            finish(observation, "timeout");
+          }
+          continue;
+        }
+        if (observation.busy) {
+          continue;
+        }
+        if (observation.nextTime <= now + SLACK) {
+          observation.busy = true;
+          due.computeIfAbsent(observation.region.getScreen(), screen -> new ArrayList<>()).add(observation);
+        } else {
+          wakeUp = Math.min(wakeUp, observation.nextTime);
+        }
+      }
+      for (Map.Entry<IScreen, List<Observation>> group : due.entrySet()) {
+        capture(group.getKey(), group.getValue());
+      }
+      synchronized (ObserveScheduler.class) {
+        if (observations.isEmpty()) {
+          scheduler = null;
+          log(lvl, "no more observers");
+          return;
+        }
+      }
+      // woken up earlier by a new observer or a finished update
+      LockSupport.parkUntil(wakeUp);
+    }
+  }
+
+  private static void capture(IScreen screen, List<Observation> group) {
+    Rectangle union = null;
+    for (Observation observation : group) {
+      Rectangle rect = observation.region.getRect();
+      union = union == null ? rect : union.union(rect);
+    }
+    ScreenImage shot;
+    try {
+      shot = screen.capture(union.x, union.y, union.width, union.height);
+    } catch (Exception e) {
+      log(-1, "capture: %s (%s)", union, e.getMessage());
+      for (Observation observation : group) {
+        observation.next(System.currentTimeMillis());
+        observation.busy = false;
+      }
+      return;
+    }
+    log(lvl + 1, "capture: %d observer(s) in %s", group.size(), union);
+    Rectangle shotRect = shot.getRect();
+    BufferedImage image = shot.getImage();
+    for (Observation observation : group) {
+      Rectangle rect = observation.region.getRect();
+      ScreenImage part;
+      if (shotRect.contains(rect)) {
+        part = new ScreenImage(rect,
+            image.getSubimage(rect.x - shotRect.x, rect.y - shotRect.y, rect.width, rect.height));
+      } else {
+        part = null; // clipped by the screen - captured on its own by the update
+      }
+      workers.execute(() -> update(observation, part));
+    }
+  }
+
+  private static void update(Observation observation, ScreenImage part) {
+    long start = System.currentTimeMillis();
+    Region region = observation.region;
+    try {
+      ScreenImage simg = part;
+      if (simg == null) {
+        simg = region.getScreen().capture(region.x, region.y, region.w, region.h);
+      }
+      if (region.isObserving() && !region.getObserver().update(simg)) {
+        finish(observation, "ended");
+      }
+    } catch (Exception e) {
+      log(-1, "update: %s: %s", region.toStringShort(), e);
+      finish(observation, "failed");
+    } finally {
+      observation.next(start);
+      observation.busy = false;
+      Thread thread = scheduler;
+      if (thread != null) {
+        LockSupport.unpark(thread);
+      }
+    }
+  }
+
+  private static void finish(Observation observation, String reason) {
+    if (!observations.remove(observation)) {
+      return;
+    }
+    Region region = observation.region;
+    if ("timeout".equals(reason)) {
+      log(lvl, "stopped due to timeout in %s for %s", region.toStringShort(), observation.duration);
+    } else {
+      log(lvl, "%s: %s", reason, region.toStringShort());
+    }
+    if (region.isObserving()) {
+      region.stopObserver();
+    }
+  }
+}
@@ -7,7 +7,13 @@ import org.sikuli.basics.Debug;
 import org.sikuli.basics.Settings;
 import org.sikuli.script.*;
 
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * INTERNAL USE implements the observe action for a region and calls the ObserverCallBacks
@@ -54,6 +60,7 @@ public class Observer {
         eventMatches.put(name, null);
       }
     }
+    patternFinders.clear();
     shouldStopOnFirstEvent = false;
     if (Observing.getStopOnFirstEvent()) {
       log(lvl, "requested to stop on first event");
@@ -146,6 +153,7 @@ public class Observer {
     eventCounts.remove(name);
     eventMatches.remove(name);
     eventRepeatWaitTimes.remove(name);
+    patternFinders.remove(name);
   }
 
   public boolean hasObservers() {
@@ -160,16 +168,39 @@ public class Observer {
     Object callBack = eventCallBacks.get(name);
     Observing.addEvent(observeEvent);
     if (callBack != null && callBack instanceof ObserverCallBack) {
-      log(lvl, "running call back: %s", obsType);
-      if (obsType == ObserveEvent.Type.APPEAR) {
-        ((ObserverCallBack) callBack).appeared(observeEvent);
-      } else if (obsType == ObserveEvent.Type.VANISH) {
-        ((ObserverCallBack) callBack).vanished(observeEvent);
-      } else if (obsType == ObserveEvent.Type.CHANGE) {
-        ((ObserverCallBack) callBack).changed(observeEvent);
-      } else if (obsType == ObserveEvent.Type.GENERIC) {
-        ((ObserverCallBack) callBack).happened(observeEvent);
-      }
+      ObserverCallBack observerCallBack = (ObserverCallBack) callBack;
+      ObserveDispatcher.dispatch(this, observeEvent, () -> {
+        log(lvl, "running call back: %s", obsType);
+        if (obsType == ObserveEvent.Type.APPEAR) {
+          observerCallBack.appeared(observeEvent);
+        } else if (obsType == ObserveEvent.Type.VANISH) {
+          observerCallBack.vanished(observeEvent);
+        } else if (obsType == ObserveEvent.Type.CHANGE) {
+          observerCallBack.changed(observeEvent);
+        } else if (obsType == ObserveEvent.Type.GENERIC) {
+          observerCallBack.happened(observeEvent);
+        }
+      });
+    }
+  }
+
+  // one Finder per pattern: each keeps its own previous shot and not found targets for the changed areas
+  private PatternFinders patternFinders = new PatternFinders();
+
+  // one pattern's check on the current frame (searched in parallel, evaluated in sequence)
+  private static class Probe {
+    final String name;
+    final Object ptn;
+    final Image img;
+    Finder finder = null;
+    Match match = null;
+    boolean hasMatch = false;
+    long now = 0;
+
+    Probe(String name, Object ptn, Image img) {
+      this.name = name;
+      this.ptn = ptn;
+      this.img = img;
     }
   }
 
@@ -178,8 +209,8 @@ public class Observer {
     if (!observedRegion.isObserving()) {
       return false;
     }
-    Finder finder = null;
-    for (String name : eventStates.keySet()) {
+    List<Probe> probes = new ArrayList<>();
+    for (String name : new ArrayList<>(eventStates.keySet())) {
       if (!patternsToCheck()) {
         continue;
       }
@@ -200,49 +231,33 @@ public class Observer {
         eventStates.put(name, State.MISSING);
         continue;
       }
-      Match match = null;
-      boolean hasMatch = false;
-      long lastSearchTime;
-      long now = 0;
-//      if (!Settings.UseImageFinder && Settings.CheckLastSeen && null != img.getLastSeen()) {
-      if (Settings.CheckLastSeen && null != img.getLastSeen()) {
-        Region r = Region.create(img.getLastSeen());
-        if (observedRegion.contains(r)) {
-          lastSearchTime = (new Date()).getTime();
-          Finder f = new Finder(new Screen().capture(r), r);
-          f.find(new Pattern(img).similar(Settings.CheckLastSeenSimilar));
-          if (f.hasNext()) {
-            log(lvl + 1, "checkLastSeen: still there");
-            match = new Match(new Region(img.getLastSeen()), img.getLastSeenScore());
-            match.setTimes(0, (new Date()).getTime() - lastSearchTime);
-            hasMatch = true;
-          } else {
-            log(lvl + 1, "checkLastSeen: not there");
-          }
-        }
+      probes.add(new Probe(name, ptn, img));
+    }
+    if (probes.isEmpty()) {
+      return patternsToCheck();
+    }
+    // all searches are done in the frame captured for the observed region (no further captures)
+    if (Settings.CheckLastSeen) {
+      runParallel(probes, probe -> checkLastSeen(probe, simg));
+    }
+    List<Probe> toSearch = new ArrayList<>();
+    for (Probe probe : probes) {
+      if (probe.match == null) {
+        toSearch.add(probe);
       }
-      if (match == null) {
-        if (finder == null) {
-//          if (Settings.UseImageFinder) {
-//            finder = new ImageFinder(observedRegion);
-//            ((ImageFinder) finder).setIsMultiFinder();
-//          } else {
-//            finder = new Finder(simg, observedRegion);
-//          }
-          finder = new Finder(simg, observedRegion);
-        }
-        lastSearchTime = (new Date()).getTime();
-        now = (new Date()).getTime();
-        finder.find(img);
-        if (finder.hasNext()) {
-          match = finder.next();
-          match.setTimes(0, now - lastSearchTime);
-          if (match.getScore() >= getSimiliarity(ptn)) {
-            hasMatch = true;
-            img.setLastSeen(match); // checkPatterns
-          }
-        }
+    }
+    if (!toSearch.isEmpty()) {
+      patternFinders.newFrame(simg, observedRegion);
+      for (Probe probe : toSearch) {
+        probe.finder = patternFinders.get(probe.name);
       }
+      runParallel(toSearch, this::search);
+    }
+    for (Probe probe : probes) {
+      String name = probe.name;
+      Object ptn = probe.ptn;
+      Match match = probe.match;
+      boolean hasMatch = probe.hasMatch;
       if (hasMatch) {
         eventMatches.put(name, match);
         log(lvl + 1, "(%s): %s match: %s in:%s", eventTypes.get(name), ptn.toString(),
@@ -260,7 +275,7 @@ public class Observer {
                 || (!hasMatch && eventTypes.get(name) == ObserveEvent.Type.VANISH)) {
           eventStates.put(name, State.HAPPENED);
           eventCounts.put(name, eventCounts.get(name) + 1);
-          callEventObserver(name, eventMatches.get(name), now);
+          callEventObserver(name, eventMatches.get(name), probe.now);
           if (shouldStopOnFirstEvent) {
             observedRegion.stopObserver();
           }
@@ -273,6 +288,67 @@ public class Observer {
     return patternsToCheck();
   }
 
+  private void checkLastSeen(Probe probe, ScreenImage simg) {
+    Image img = probe.img;
+    Rectangle lastSeen = img.getLastSeen();
+    if (null == lastSeen) {
+      return;
+    }
+    Rectangle frame = simg.getRect();
+    if (!observedRegion.getRect().contains(lastSeen) || !frame.contains(lastSeen)) {
+      return;
+    }
+    long lastSearchTime = (new Date()).getTime();
+    BufferedImage part = simg.getImage().getSubimage(lastSeen.x - frame.x, lastSeen.y - frame.y,
+            lastSeen.width, lastSeen.height);
+    Region r = new Region(lastSeen.x, lastSeen.y, lastSeen.width, lastSeen.height, observedRegion.getScreen());
+    Finder f = new Finder(new ScreenImage(lastSeen, part), r);
+    f.find(new Pattern(img).similar(Settings.CheckLastSeenSimilar));
+    FindMetrics.lastSeen(img, observedRegion, f.hasNext());
+    if (f.hasNext()) {
+      log(lvl + 1, "checkLastSeen: still there");
+      probe.now = (new Date()).getTime();
+      probe.match = new Match(r, img.getLastSeenScore());
+      probe.match.setTimes(0, probe.now - lastSearchTime);
+      probe.hasMatch = true;
+    } else {
+      log(lvl + 1, "checkLastSeen: not there");
+    }
+  }
+
+  private void search(Probe probe) {
+    long lastSearchTime = (new Date()).getTime();
+    probe.finder.find(probe.img);
+    probe.now = (new Date()).getTime();
+    if (probe.finder.hasNext()) {
+      probe.match = probe.finder.next();
+      probe.match.setTimes(0, probe.now - lastSearchTime);
+      if (probe.match.getScore() >= getSimiliarity(probe.ptn)) {
+        probe.hasMatch = true;
+        probe.img.setLastSeen(probe.match); // checkPatterns
+      }
+    }
+  }
+
+  // on the find executor - the last one on the calling thread
+  private void runParallel(List<Probe> probes, Consumer<Probe> check) {
+    List<Future<?>> running = new ArrayList<>();
+    for (Probe probe : probes.subList(0, probes.size() - 1)) {
+      running.add(PatternFinders.submit(() -> check.accept(probe)));
+    }
+    check.accept(probes.get(probes.size() - 1));
+    for (Future<?> result : running) {
+      try {
+        result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        log(-1, "checkPatterns: %s", e.getCause());
+      }
+    }
+  }
+
   private boolean patternsToCheck() {
     for (String name : eventNames.keySet()) {
       if (eventTypes.get(name) == ObserveEvent.Type.CHANGE) {
@@ -323,7 +399,7 @@ public class Observer {
       }
     }
     log(lvl + 1, "update: checking changes");
-    Finder finder = new Finder(lastImage.getImage()); // screenImage
+    Finder finder = new Finder(lastImage, observedRegion); // the changes are on the observed region's screen
     List<Region> result = finder.findChanges(img);
     if (result.size() > 0) {
       callChangeObserver(result);
@@ -361,8 +437,11 @@ public class Observer {
         Observing.addEvent(observeEvent);
         Object callBack = eventCallBacks.get(name);
         if (callBack != null) {
-          log(lvl, "running call back");
-          ((ObserverCallBack) callBack).changed(observeEvent);
+          ObserverCallBack observerCallBack = (ObserverCallBack) callBack;
+          ObserveDispatcher.dispatch(this, observeEvent, () -> {
+            log(lvl, "running call back");
+            observerCallBack.changed(observeEvent);
+          });
         }
       }
     }
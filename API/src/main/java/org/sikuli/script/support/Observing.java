@@ -102,6 +102,23 @@ public class Observing {
     }
   }
 
+  /**
+   * how the callbacks of the observer with the given name are run (valid for all regions):<br>
+   * sync (on the observing thread), block (wait for space in the region's queue),
+   * drop_oldest or coalesce (only the latest waiting event)<br>
+   * default: Settings.ObserveCallbackPolicy
+   *
+   * @param name   observers name
+   * @param policy sync, block, drop_oldest, coalesce (null: back to the default)
+   */
+  public static void setCallbackPolicy(String name, String policy) {
+    try {
+      ObserveDispatcher.setPolicy(name, policy == null ? null : ObserveDispatcher.Policy.valueOf(policy.toUpperCase()));
+    } catch (IllegalArgumentException e) {
+      log(-1, "setCallbackPolicy: not valid: %s (sync, block, drop_oldest, coalesce)", policy);
+    }
+  }
+
   /**
    * remove the observer from the list, a region observer will be stopped <br>
    * events for that observer are removed as well
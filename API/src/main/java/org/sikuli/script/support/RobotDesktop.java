@@ -3,9 +3,6 @@
  */
 package org.sikuli.script.support;
 
-import org.sikuli.basics.Animator;
-import org.sikuli.basics.AnimatorOutQuarticEase;
-import org.sikuli.basics.AnimatorTimeBased;
 import org.sikuli.basics.Settings;
 import org.sikuli.natives.SXUser32;
 import org.sikuli.basics.Debug;
@@ -117,25 +114,21 @@ public class RobotDesktop extends Robot implements IRobot {
     if (src.equals(dest)) {
       return;
     }
-    float x = 0, y = 0;
+    Location last;
     if (ms == 0) {
       doMouseMove(dest.x, dest.y);
-      x = dest.x;
-      y = dest.y;
+      last = dest;
     } else {
-      Animator aniX = new AnimatorTimeBased(
-          new AnimatorOutQuarticEase(src.x, dest.x, ms));
-      Animator aniY = new AnimatorTimeBased(
-          new AnimatorOutQuarticEase(src.y, dest.y, ms));
-      while (aniX.running()) {
-        x = aniX.step();
-        y = aniY.step();
-        doMouseMove((int) x, (int) y);
+      last = mouseMotion.move(src, dest, ms);
+      if (last == null) {
+        return; // taken over by a newer move
       }
     }
-    checkMousePosition(new Location(x, y));
+    checkMousePosition(last);
   }
 
+  private final MouseMotion mouseMotion = new MouseMotion(this::doMouseMove);
+
   private void doMouseMove(int x, int y) {
     mouseMove(x, y);
   }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.basics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LogBufferTest {
+
+  private static LogBuffer.Line line(String message) {
+    return new LogBuffer.Line(0, "", message, null, 0);
+  }
+
+  @Test
+  public void testOrderAndEmpty() {
+    LogBuffer buffer = new LogBuffer(4);
+    assertNull(buffer.poll());
+    assertEquals(1, buffer.offer(line("a")));
+    assertEquals(0, buffer.offer(line("b")));
+    assertEquals("a", buffer.poll().message);
+    assertEquals("b", buffer.poll().message);
+    assertNull(buffer.poll());
+    assertEquals("empty again", 1, buffer.offer(line("c")));
+  }
+
+  @Test
+  public void testOverflow() {
+    // 5 is rounded up to 8
+    LogBuffer buffer = new LogBuffer(5);
+    for (int n = 0; n < 8; n++) {
+      assertNotEquals("line " + n, -1, buffer.offer(line("" + n)));
+    }
+    assertEquals("full", -1, buffer.offer(line("lost")));
+    assertEquals("0", buffer.poll().message);
+    assertEquals("one free slot", 0, buffer.offer(line("8")));
+    assertEquals(-1, buffer.offer(line("lost")));
+    for (int n = 1; n <= 8; n++) {
+      assertEquals("" + n, buffer.poll().message);
+    }
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  public void testWrapAround() {
+    LogBuffer buffer = new LogBuffer(4);
+    for (int n = 0; n < 100; n++) {
+      assertNotEquals(-1, buffer.offer(line("" + n)));
+      assertNotEquals(-1, buffer.offer(line("" + n + "+")));
+      assertEquals("" + n, buffer.poll().message);
+      assertEquals("" + n + "+", buffer.poll().message);
+    }
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  public void testConcurrentWriters() throws InterruptedException {
+    int writers = 4;
+    int lines = 10000;
+    LogBuffer buffer = new LogBuffer(64);
+    List<Thread> threads = new ArrayList<>();
+    for (int w = 0; w < writers; w++) {
+      String prefix = "" + w;
+      Thread thread = new Thread(() -> {
+        for (int n = 0; n < lines; n++) {
+          while (buffer.offer(new LogBuffer.Line(0, prefix, null, null, n)) < 0) {
+            Thread.yield();
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    long[] next = new long[writers];
+    int received = 0;
+    long wait = System.currentTimeMillis() + 30000;
+    while (received < writers * lines && System.currentTimeMillis() < wait) {
+      LogBuffer.Line line = buffer.poll();
+      if (line == null) {
+        Thread.yield();
+        continue;
+      }
+      int writer = Integer.parseInt(line.prefix);
+      assertEquals("in order per writer", next[writer]++, line.time);
+      received++;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(writers * lines, received);
+    assertNull(buffer.poll());
+  }
+}
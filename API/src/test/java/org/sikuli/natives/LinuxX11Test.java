@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.natives;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.platform.unix.X11;
+import com.sun.jna.platform.unix.X11.Display;
+import com.sun.jna.platform.unix.X11.Window;
+import org.junit.*;
+import org.sikuli.basics.Settings;
+
+import java.awt.Rectangle;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * needs an X server without a window manager: xvfb-run -a mvn -pl API test
+ * <p>
+ * The test window is made with its own display connection, like another application would.
+ */
+public class LinuxX11Test {
+
+  private static final String TITLE = "SikuliX-LinuxX11Test";
+  private static final long PID = 4711;
+
+  private static X11 x11;
+  private static Display display;
+  private Window window;
+
+  @BeforeClass
+  public static void setUpClass() {
+    assumeTrue("Linux only", System.getProperty("os.name").toLowerCase().startsWith("linux"));
+    assumeTrue("no X display (use xvfb-run)", System.getenv("DISPLAY") != null);
+    Settings.LinuxX11 = true;
+    assertTrue(LinuxX11.isAvailable());
+    x11 = X11.INSTANCE;
+    display = x11.XOpenDisplay(null);
+    assertNotNull(display);
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    if (display != null) {
+      x11.XCloseDisplay(display);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    if (window != null) {
+      x11.XDestroyWindow(display, window);
+      x11.XSync(display, false);
+    }
+  }
+
+  private Window createWindow(boolean map) {
+    Window created = x11.XCreateSimpleWindow(display, x11.XDefaultRootWindow(display), 10, 20, 300, 200, 0, 0, 0);
+    byte[] title = TITLE.getBytes(StandardCharsets.UTF_8);
+    Memory titleMemory = new Memory(title.length);
+    titleMemory.write(0, title, 0, title.length);
+    x11.XChangeProperty(display, created, X11.XA_WM_NAME, X11.XA_STRING, 8, X11.PropModeReplace,
+        titleMemory, title.length);
+    // format 32 properties are passed as longs
+    Memory pidMemory = new Memory(Native.LONG_SIZE);
+    pidMemory.setNativeLong(0, new NativeLong(PID));
+    x11.XChangeProperty(display, created, x11.XInternAtom(display, "_NET_WM_PID", false), X11.XA_CARDINAL, 32,
+        X11.PropModeReplace, pidMemory, 1);
+    if (map) {
+      x11.XMapWindow(display, created);
+    }
+    x11.XSync(display, false);
+    return created;
+  }
+
+  @Test
+  public void testQueries() {
+    window = createWindow(true);
+    long id = window.longValue();
+    assertTrue(LinuxX11.getWindows().contains(id));
+    assertEquals(TITLE, LinuxX11.getTitle(id));
+    assertEquals(PID, LinuxX11.getPid(id));
+    assertTrue(LinuxX11.isViewable(id));
+    Rectangle bounds = LinuxX11.getBounds(id);
+    assertNotNull(bounds);
+    assertEquals(300, bounds.width);
+    assertEquals(200, bounds.height);
+  }
+
+  @Test
+  public void testWindowListChanges() throws InterruptedException {
+    long count = LinuxX11.getWindows().size();
+    window = createWindow(false);
+    long id = window.longValue();
+    assertFalse(LinuxX11.isViewable(id));
+    CountDownLatch mapped = new CountDownLatch(1);
+    Runnable listener = mapped::countDown;
+    assertTrue(LinuxX11.addListener(listener));
+    try {
+      x11.XMapWindow(display, window);
+      x11.XSync(display, false);
+      assertTrue("listener not run", mapped.await(5, TimeUnit.SECONDS));
+    } finally {
+      LinuxX11.removeListener(listener);
+    }
+    assertTrue(LinuxX11.isViewable(id));
+    assertTrue(LinuxX11.getWindows().contains(id));
+    x11.XDestroyWindow(display, window);
+    x11.XSync(display, false);
+    window = null;
+    long wait = System.currentTimeMillis() + 5000;
+    while (LinuxX11.getWindows().contains(id) && System.currentTimeMillis() < wait) {
+      Thread.sleep(50);
+    }
+    assertFalse("cached window list not invalidated", LinuxX11.getWindows().contains(id));
+    assertEquals(count, LinuxX11.getWindows().size());
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.script;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.sikuli.basics.Settings;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * findAll: peaks of the match result in one pass with non-maximum suppression (Finder2.findPeaks)
+ */
+public class FindPeaksTest {
+
+  private double maxOverlap;
+  private boolean downsized;
+
+  @Before
+  public void setUp() {
+    Finder.Finder2.init();
+    maxOverlap = Settings.FindAllMaxOverlap;
+    downsized = Settings.SearchDownsized;
+  }
+
+  @After
+  public void tearDown() {
+    Settings.FindAllMaxOverlap = maxOverlap;
+    Settings.SearchDownsized = downsized;
+  }
+
+  private static Mat result(int width, int height) {
+    return new Mat(height, width, CvType.CV_32FC1, new Scalar(0));
+  }
+
+  @Test
+  public void testBestFirstAboveScore() {
+    Mat mResult = result(200, 100);
+    mResult.put(10, 10, 0.8f);
+    mResult.put(50, 150, 0.95f);
+    mResult.put(80, 80, 0.6f);
+    List<Finder.Finder2.Peak> peaks = Finder.Finder2.findPeaks(mResult, 0.7, 20, 20);
+    assertEquals(2, peaks.size());
+    assertEquals(150, peaks.get(0).x);
+    assertEquals(50, peaks.get(0).y);
+    assertEquals(0.95, peaks.get(0).score, 1e-6);
+    assertEquals(10, peaks.get(1).x);
+    assertEquals(10, peaks.get(1).y);
+  }
+
+  @Test
+  public void testOverlapSuppressed() {
+    Settings.FindAllMaxOverlap = 0.1;
+    Mat mResult = result(200, 100);
+    mResult.put(20, 20, 0.9f);
+    // outside the dilation kernel (half the target), but overlapping the better one (IoU 0.54)
+    mResult.put(20, 32, 0.85f);
+    // touching the better one only
+    mResult.put(20, 60, 0.8f);
+    List<Finder.Finder2.Peak> peaks = Finder.Finder2.findPeaks(mResult, 0.7, 40, 40);
+    assertEquals(2, peaks.size());
+    assertEquals(20, peaks.get(0).x);
+    assertEquals(60, peaks.get(1).x);
+
+    Settings.FindAllMaxOverlap = 0.6;
+    peaks = Finder.Finder2.findPeaks(mResult, 0.7, 40, 40);
+    assertEquals("overlap allowed", 3, peaks.size());
+  }
+
+  @Test
+  public void testPlainAreaTooManyPeaks() {
+    Mat mResult = new Mat(300, 300, CvType.CV_32FC1, new Scalar(0.99));
+    assertNull(Finder.Finder2.findPeaks(mResult, 0.7, 3, 3));
+    assertTrue(Finder.Finder2.findPeaks(mResult, 0.995, 3, 3).isEmpty());
+  }
+
+  @Test
+  public void testFindAll() {
+    BufferedImage base = new BufferedImage(800, 600, BufferedImage.TYPE_3BYTE_BGR);
+    Graphics2D g = base.createGraphics();
+    Random random = new Random(1);
+    for (int n = 0; n < 2000; n++) {
+      g.setColor(new Color(random.nextInt(0xffffff)));
+      g.fillRect(random.nextInt(800), random.nextInt(600), 5 + random.nextInt(20), 5 + random.nextInt(20));
+    }
+    BufferedImage target = new BufferedImage(60, 40, BufferedImage.TYPE_3BYTE_BGR);
+    target.getGraphics().drawImage(base.getSubimage(100, 100, 60, 40), 0, 0, null);
+    int[][] places = {{100, 100}, {400, 300}, {700, 500}, {300, 80}};
+    for (int[] place : places) {
+      g.drawImage(target, place[0], place[1], null);
+    }
+    g.dispose();
+    for (boolean down : new boolean[]{false, true}) {
+      Settings.SearchDownsized = down;
+      Finder finder = new Finder(base);
+      finder.findAll(new Pattern(new Image(target)).similar(0.9));
+      List<Match> matches = new ArrayList<>();
+      while (finder.hasNext()) {
+        matches.add(finder.next());
+      }
+      assertEquals("downsized: " + down + " " + matches, places.length, matches.size());
+      for (int[] place : places) {
+        boolean found = false;
+        for (Match match : matches) {
+          found |= match.x == place[0] && match.y == place[1];
+        }
+        assertTrue("downsized: " + down + " not found: " + place[0] + "," + place[1], found);
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.script;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sikuli.basics.Settings;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * images of 1.5 MB in memory with a cache of 4 MB: two of them fit
+ */
+public class ImageCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private int cache;
+
+  @Before
+  public void setUp() {
+    cache = Settings.getImageCache();
+    Image.clearCache(0);
+    Settings.setImageCache(4);
+  }
+
+  @After
+  public void tearDown() {
+    Image.clearCache(0);
+    Settings.setImageCache(cache);
+  }
+
+  private Image load(String name) throws IOException {
+    File file = folder.newFile(name + ".png");
+    BufferedImage content = new BufferedImage(1024, 512, BufferedImage.TYPE_3BYTE_BGR);
+    content.setRGB(0, 0, name.hashCode());
+    ImageIO.write(content, "png", file);
+    Image image = Image.from(file);
+    assertTrue(name + " not cached when loaded", image.isCached());
+    return image;
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() throws IOException {
+    Image a = load("a");
+    Image b = load("b");
+    a.get();
+    Image c = load("c");
+    assertTrue("used after b", a.isCached());
+    assertFalse("least recently used", b.isCached());
+    assertTrue(c.isCached());
+    assertNotNull("loaded again", b.get());
+    assertTrue(b.isCached());
+    assertFalse("now least recently used", a.isCached());
+  }
+
+  @Test
+  public void testPinnedIsKept() throws IOException {
+    Image a = load("a").pin();
+    Image b = load("b");
+    Image c = load("c");
+    assertTrue("pinned, though least recently used", a.isCached());
+    assertFalse(b.isCached());
+    assertTrue(c.isCached());
+    Image d = load("d");
+    assertTrue(a.isCached());
+    assertFalse(c.isCached());
+    assertTrue(d.isCached());
+    a.unpin();
+    load("e");
+    assertFalse("unpinned and least recently used", a.isCached());
+    assertTrue(d.isCached());
+  }
+
+  @Test
+  public void testClearCacheEvictsPinned() throws IOException {
+    Image a = load("a").pin();
+    Image b = load("b");
+    Image.clearCache(0);
+    assertFalse(a.isCached());
+    assertFalse(b.isCached());
+    assertTrue(a.isPinned());
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.script.support;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sikuli.basics.Settings;
+import org.sikuli.script.ObserveEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ObserveDispatcherTest {
+
+  private static final long WAIT = 5000;
+
+  private int queue;
+  private String name;
+  private final Object owner = new Object();
+  private final List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Before
+  public void setUp() {
+    queue = Settings.ObserveCallbackQueue;
+    Settings.ObserveCallbackQueue = 2;
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    ObserveDispatcher.cancel(owner);
+    if (name != null) {
+      ObserveDispatcher.setPolicy(name, null);
+    }
+    Settings.ObserveCallbackQueue = queue;
+  }
+
+  private void dispatch(int n) {
+    ObserveEvent event = new ObserveEvent(name, ObserveEvent.Type.GENERIC, null, null, null,
+        System.currentTimeMillis());
+    ObserveDispatcher.dispatch(owner, event, () -> {
+      if (n == 0) {
+        started.countDown();
+        try {
+          release.await(WAIT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+        }
+      }
+      ran.add(n);
+    });
+  }
+
+  // event 0 is running (not waiting in the queue) until released
+  private void startBlocked(ObserveDispatcher.Policy policy) throws InterruptedException {
+    name = "test-" + policy;
+    ObserveDispatcher.setPolicy(name, policy);
+    dispatch(0);
+    assertTrue("first callback not started", started.await(WAIT, TimeUnit.MILLISECONDS));
+  }
+
+  private void finish() {
+    release.countDown();
+    ObserveDispatcher.await(owner);
+  }
+
+  @Test
+  public void testDefaultPolicyIsSync() {
+    String policy = Settings.ObserveCallbackPolicy;
+    try {
+      Settings.ObserveCallbackPolicy = "sync";
+      assertEquals(ObserveDispatcher.Policy.SYNC, ObserveDispatcher.getPolicy("unknown"));
+      Settings.ObserveCallbackPolicy = "nonsense";
+      assertEquals(ObserveDispatcher.Policy.SYNC, ObserveDispatcher.getPolicy("unknown"));
+    } finally {
+      Settings.ObserveCallbackPolicy = policy;
+    }
+  }
+
+  @Test
+  public void testSyncRunsOnCallingThread() {
+    name = "test-SYNC";
+    ObserveDispatcher.setPolicy(name, ObserveDispatcher.Policy.SYNC);
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+    ObserveEvent event = new ObserveEvent(name, ObserveEvent.Type.GENERIC, null, null, null,
+        System.currentTimeMillis());
+    ObserveDispatcher.dispatch(owner, event, () -> threads.add(Thread.currentThread()));
+    assertEquals(Arrays.asList(caller), threads);
+    assertTrue(event.getDispatchTime() > 0);
+  }
+
+  @Test
+  public void testDropOldest() throws InterruptedException {
+    startBlocked(ObserveDispatcher.Policy.DROP_OLDEST);
+    for (int n = 1; n <= 5; n++) {
+      dispatch(n);
+    }
+    finish();
+    assertEquals(Arrays.asList(0, 4, 5), ran);
+  }
+
+  @Test
+  public void testCoalesce() throws InterruptedException {
+    startBlocked(ObserveDispatcher.Policy.COALESCE);
+    for (int n = 1; n <= 5; n++) {
+      dispatch(n);
+    }
+    finish();
+    assertEquals(Arrays.asList(0, 5), ran);
+  }
+
+  @Test
+  public void testBlock() throws InterruptedException {
+    startBlocked(ObserveDispatcher.Policy.BLOCK);
+    dispatch(1);
+    dispatch(2);
+    Thread scanner = new Thread(() -> dispatch(3));
+    scanner.start();
+    waitForState(scanner, Thread.State.WAITING);
+    assertTrue("queue full: dispatch must wait", scanner.isAlive());
+    finish();
+    scanner.join(WAIT);
+    assertFalse(scanner.isAlive());
+    ObserveDispatcher.await(owner);
+    assertEquals(Arrays.asList(0, 1, 2, 3), ran);
+  }
+
+  @Test
+  public void testCancelDropsWaitingAndReleasesBlocked() throws InterruptedException {
+    startBlocked(ObserveDispatcher.Policy.BLOCK);
+    dispatch(1);
+    dispatch(2);
+    Thread scanner = new Thread(() -> dispatch(3));
+    scanner.start();
+    waitForState(scanner, Thread.State.WAITING);
+    ObserveDispatcher.cancel(owner);
+    scanner.join(WAIT);
+    assertFalse("blocked dispatch not released", scanner.isAlive());
+    finish();
+    assertEquals("only the running callback completes", Arrays.asList(0), ran);
+  }
+
+  private static void waitForState(Thread thread, Thread.State state) throws InterruptedException {
+    long end = System.currentTimeMillis() + WAIT;
+    while (thread.getState() != state && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(state, thread.getState());
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+
+package org.sikuli.script.support;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sikuli.script.ObserveEvent;
+import org.sikuli.script.ObserverCallBack;
+import org.sikuli.script.Region;
+import org.sikuli.script.ScreenImage;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * background observers on a screen faked in memory: the captures are counted
+ */
+public class ObserveSchedulerTest {
+
+  private static final int REGIONS = 5;
+  private static final long WAIT = 10000;
+
+  private final BufferedImage content = new BufferedImage(1000, 200, BufferedImage.TYPE_3BYTE_BGR);
+  private final AtomicInteger captures = new AtomicInteger();
+  private IScreen screen;
+
+  @Before
+  public void setUp() {
+    paint(Color.WHITE, 0, 0, 1000, 200);
+    screen = (IScreen) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{IScreen.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "capture":
+              if (args.length == 4) {
+                return capture((int) args[0], (int) args[1], (int) args[2], (int) args[3]);
+              }
+              return null;
+            case "getBounds":
+              return new Rectangle(0, 0, 1000, 200);
+            case "isOtherScreen":
+              return true;
+            case "getID":
+              return 0;
+            case "getIDString":
+            case "toString":
+              return "test";
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              return null;
+          }
+        });
+  }
+
+  private synchronized void paint(Color color, int x, int y, int w, int h) {
+    Graphics g = content.getGraphics();
+    g.setColor(color);
+    g.fillRect(x, y, w, h);
+    g.dispose();
+  }
+
+  private synchronized ScreenImage capture(int x, int y, int w, int h) {
+    captures.incrementAndGet();
+    BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+    Graphics g = image.getGraphics();
+    g.drawImage(content, -x, -y, null);
+    g.dispose();
+    return new ScreenImage(new Rectangle(x, y, w, h), image);
+  }
+
+  private Region[] observe(double secs, AtomicInteger[] changes) {
+    Region[] regions = new Region[REGIONS];
+    for (int n = 0; n < REGIONS; n++) {
+      AtomicInteger changed = changes[n] = new AtomicInteger();
+      regions[n] = new Region(n * 200, 0, 180, 200, screen);
+      regions[n].setObserveScanRate(10);
+      regions[n].onChange(10, new ObserverCallBack() {
+        @Override
+        public void changed(ObserveEvent event) {
+          changed.incrementAndGet();
+        }
+      });
+      regions[n].observeInBackground(secs);
+    }
+    return regions;
+  }
+
+  private static void waitStopped(Region[] regions) throws InterruptedException {
+    long end = System.currentTimeMillis() + WAIT;
+    while (ObserveScheduler.size() > 0 && System.currentTimeMillis() < end) {
+      Thread.sleep(50);
+    }
+    assertEquals("observers left", 0, ObserveScheduler.size());
+    for (Region region : regions) {
+      assertFalse(region.isObserving());
+    }
+  }
+
+  @Test
+  public void testSharedCaptures() throws InterruptedException {
+    AtomicInteger[] changes = new AtomicInteger[REGIONS];
+    Region[] regions = observe(2, changes);
+    Thread.sleep(1000);
+    paint(Color.RED, 420, 50, 100, 100);
+    waitStopped(regions);
+    // 10 per second for 2 seconds: one capture for all regions at each tick
+    int ticks = 2 * 10;
+    assertTrue("captures: " + captures.get(), captures.get() <= 2 * ticks);
+    for (int n = 0; n < REGIONS; n++) {
+      assertEquals("region " + n, n == 2 ? 1 : 0, changes[n].get());
+    }
+  }
+
+  @Test
+  public void testStopObserver() throws InterruptedException {
+    AtomicInteger[] changes = new AtomicInteger[REGIONS];
+    Region[] regions = observe(60, changes);
+    Thread.sleep(300);
+    for (Region region : regions) {
+      region.stopObserver();
+    }
+    waitStopped(regions);
+    int stopped = captures.get();
+    Thread.sleep(300);
+    assertEquals("captures after stop", stopped, captures.get());
+  }
+}
@@ -8,9 +8,8 @@ import java.awt.*;
 import java.util.*;
 import java.util.prefs.PreferenceChangeEvent;
 import java.util.prefs.PreferenceChangeListener;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.swing.JComponent;
+import javax.swing.event.DocumentEvent;
 import javax.swing.text.*;
 import org.sikuli.basics.Settings;
 import org.sikuli.basics.Debug;
@@ -131,13 +130,22 @@ class SyntaxHighlightLabelView extends LabelView {
   static FontMetrics _fMetrics = null;
   static String tabStr = nSpaces(PreferencesUser.get().getTabWidth());
 
-  private Map<Pattern, Color> patternColors;
-  private static Map<Pattern, Color> patternColorsBasic;
-  private static Map<Pattern, Color> patternColorsPython;
-  private static Map<Pattern, Color> patternColorsRuby;
-  private static Map<Pattern, Color> patternColorsSikuli;
+  private Map<String, Color> wordColors;
+  private static Map<String, Color> wordColorsBasic;
+  private static Map<String, Color> wordColorsPython;
+  private static Map<String, Color> wordColorsRuby;
   private static Font fontParenthesis;
 
+  private static final Color colorCommentSpecial = new Color(220, 220, 220);
+  private static final Color colorComment = new Color(138, 140, 193);
+  private static final Color colorString = new Color(128, 0, 0);
+  private static final Color colorNumber = new Color(128, 64, 0);
+
+  // tokens of the current text, dropped when the document changes this view
+  private String tokenText = null;
+  private SortedMap<Integer, Integer> tokenPos = null;
+  private SortedMap<Integer, Color> tokenColor = null;
+
   //<editor-fold defaultstate="collapsed" desc="keyword lists">
   //TODO Highlight names in Python scripts
   private static String[] keywordsPython = {
@@ -245,47 +253,40 @@ class SyntaxHighlightLabelView extends LabelView {
             });
     fontParenthesis = new Font("Osaka-Mono", Font.PLAIN, 30);
 
-    // NOTE: the order is important!
-		patternColorsBasic = new HashMap<Pattern, Color>();
-    patternColorsPython = new HashMap<Pattern, Color>();
-    patternColorsRuby = new HashMap<Pattern, Color>();
-    patternColorsSikuli = new HashMap<Pattern, Color>();
-    patternColorsBasic.put(Pattern.compile("(#:.*$)"), new Color(220, 220, 220));
-    patternColorsBasic.put(Pattern.compile("(#.*$)"), new Color(138, 140, 193));
-    patternColorsBasic.put(Pattern.compile("(\"[^\"]*\"?)"), new Color(128, 0, 0));
-    patternColorsBasic.put(Pattern.compile("(\'[^\']*\'?)"), new Color(128, 0, 0));
-    patternColorsBasic.put(Pattern.compile("\\b([0-9]+)\\b"), new Color(128, 64, 0));
-		patternColorsPython.putAll(patternColorsBasic);
-		patternColorsRuby.putAll(patternColorsBasic);
-    for (int i = 0; i < keywordsPython.length; i++) { patternColorsPython.put(Pattern.compile(
-              "\\b(" + keywordsPython[i] + ")\\b"), Color.blue);
+    // comments, strings and numbers are found by the scanner in buildColorMaps
+    // NOTE: the order is important - the Sikuli words win over the language keywords
+		wordColorsBasic = new HashMap<String, Color>();
+    Map<String, Color> wordColorsSikuli = new HashMap<String, Color>();
+    for (String word : keywordsSikuli) {
+      wordColorsSikuli.put(word, new Color(63, 127, 127));
     }
-    for (int i = 0; i < keywordsRuby.length; i++) { patternColorsRuby.put(Pattern.compile(
-              "\\b(" + keywordsRuby[i] + ")\\b"), Color.blue);
+    for (String word : keywordsSikuliClass) {
+      wordColorsSikuli.put(word, new Color(215, 41, 56));
     }
-    for (int i = 0; i < keywordsSikuli.length; i++) { patternColorsSikuli.put(Pattern.compile(
-              "\\b(" + keywordsSikuli[i] + ")\\b"), new Color(63, 127, 127));
+    for (String word : constantsSikuli) {
+      wordColorsSikuli.put(word, colorNumber);
     }
-    for (int i = 0; i < keywordsSikuliClass.length; i++) { patternColorsSikuli.put(Pattern.compile(
-              "\\b(" + keywordsSikuliClass[i] + ")\\b"), new Color(215, 41, 56));
+    wordColorsPython = new HashMap<String, Color>();
+    for (String word : keywordsPython) {
+      wordColorsPython.put(word, Color.blue);
     }
-    for (int i = 0; i < constantsSikuli.length; i++) { patternColorsSikuli.put(Pattern.compile(
-              "\\b(" + constantsSikuli[i] + ")\\b"), new Color(128, 64, 0));
+		wordColorsPython.putAll(wordColorsSikuli);
+    wordColorsRuby = new HashMap<String, Color>();
+    for (String word : keywordsRuby) {
+      wordColorsRuby.put(word, Color.blue);
     }
-		patternColorsPython.putAll(patternColorsSikuli);
-		patternColorsRuby.putAll(patternColorsSikuli);
-		patternColorsSikuli = null;
+		wordColorsRuby.putAll(wordColorsSikuli);
   }
 
 	public SyntaxHighlightLabelView(Element elm, String contentType) {
 		super(elm);
 		sikuliContentType = contentType;
 		if (JythonRunner.TYPE.equals(sikuliContentType)) {
-			patternColors = patternColorsPython;
+			wordColors = wordColorsPython;
 		} else if (JRubyRunner.TYPE.equals(sikuliContentType)) {
-			patternColors = patternColorsRuby;
+			wordColors = wordColorsRuby;
 		} else {
-		  patternColors = patternColorsBasic;
+		  wordColors = wordColorsBasic;
     }
 	}
 
@@ -440,9 +441,14 @@ class SyntaxHighlightLabelView extends LabelView {
     String text = getText(getStartOffset(), getEndOffset()).toString();
     //System.out.println("draw " + text);
 
-    SortedMap<Integer, Integer> posMap = new TreeMap<Integer, Integer>();
-    SortedMap<Integer, Color> colorMap = new TreeMap<Integer, Color>();
-    buildColorMaps(text, posMap, colorMap);
+    if (tokenPos == null || !text.equals(tokenText)) {
+      tokenText = text;
+      tokenPos = new TreeMap<Integer, Integer>();
+      tokenColor = new TreeMap<Integer, Color>();
+      buildColorMaps(text, tokenPos, tokenColor);
+    }
+    SortedMap<Integer, Integer> posMap = tokenPos;
+    SortedMap<Integer, Color> colorMap = tokenColor;
 
     if (_fMetrics == null) {
       _fMetrics = g2d.getFontMetrics();
@@ -515,19 +521,79 @@ class SyntaxHighlightLabelView extends LabelView {
     return x;
   }
 
-  void buildColorMaps(String text, Map<Integer, Integer> posMap,
-          Map<Integer, Color> colorMap) {
+  @Override
+  public void insertUpdate(DocumentEvent e, Shape a, ViewFactory f) {
+    tokenPos = null;
+    super.insertUpdate(e, a, f);
+  }
+
+  @Override
+  public void removeUpdate(DocumentEvent e, Shape a, ViewFactory f) {
+    tokenPos = null;
+    super.removeUpdate(e, a, f);
+  }
 
-    // Match all regexes on this snippet, store positions
-    for (Map.Entry<Pattern, Color> entry : patternColors.entrySet()) {
+  @Override
+  public void changedUpdate(DocumentEvent e, Shape a, ViewFactory f) {
+    tokenPos = null;
+    super.changedUpdate(e, a, f);
+  }
 
-      Matcher matcher = entry.getKey().matcher(text);
+  /**
+   * one pass over the text: comments, strings, numbers and the known words
+   *
+   * @param text     the text of this view
+   * @param posMap   start to end of each token
+   * @param colorMap start to color of each token
+   */
+  void buildColorMaps(String text, Map<Integer, Integer> posMap,
+          Map<Integer, Color> colorMap) {
+    int len = text.length();
+    int pos = 0;
+    while (pos < len) {
+      char c = text.charAt(pos);
+      int start = pos;
+      Color color = null;
+      if (c == '#') {
+        color = text.startsWith("#:", pos) ? colorCommentSpecial : colorComment;
+        pos = text.indexOf('\n', pos);
+        if (pos < 0) {
+          pos = len;
+        }
+      } else if (c == '"' || c == '\'') {
+        pos = text.indexOf(c, pos + 1);
+        pos = pos < 0 ? len : pos + 1;
+        color = colorString;
+      } else if (Character.isLetterOrDigit(c) || c == '_') {
+        while (pos < len && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+          pos++;
+        }
+        String word = text.substring(start, pos);
+        if (pos < len && text.charAt(pos) == '?' && wordColors.containsKey(word + "?")) {
+          word += "?";
+          pos++;
+        }
+        color = wordColors.get(word);
+        if (color == null && isNumber(word)) {
+          color = colorNumber;
+        }
+      } else {
+        pos++;
+      }
+      if (color != null) {
+        posMap.put(start, pos);
+        colorMap.put(start, color);
+      }
+    }
+  }
 
-      while (matcher.find()) {
-        posMap.put(matcher.start(1), matcher.end());
-        colorMap.put(matcher.start(1), entry.getValue());
+  private static boolean isNumber(String word) {
+    for (int i = 0; i < word.length(); i++) {
+      if (word.charAt(i) < '0' || word.charAt(i) > '9') {
+        return false;
       }
     }
+    return true;
   }
 
   //</editor-fold>
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.script.runnerSupport;
+
+import org.apache.commons.io.FilenameUtils;
+import org.python.core.BytecodeLoader;
+import org.python.core.PyCode;
+import org.python.core.PySystemState;
+import org.python.core.imp;
+import org.sikuli.basics.Debug;
+import org.sikuli.script.support.Commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps the compiled code of Jython scripts and modules (what would be foo$py.class)
+ * in the app data folder, keyed by a hash of the Jython version, the source path and the source content.
+ * <p>
+ * A changed source gets a new key and is compiled again - nothing has to be invalidated.
+ * Entries not used for the longest time are deleted, when there are more than MAX_ENTRIES.
+ * Several processes may use the cache at the same time (entries are written to a temp file and renamed).
+ */
+public class JythonCodeCache {
+
+  private static final String me = "JythonCodeCache: ";
+  private static final int lvl = 3;
+
+  private static void log(int level, String message, Object... args) {
+    Debug.logx(level, me + message, args);
+  }
+
+  static final String FOLDER = "JythonCache";
+  static final String EXTENSION = ".class";
+  static final int MAX_ENTRIES = 2000;
+
+  private static File folder = null;
+
+  static synchronized File getFolder() {
+    if (folder == null) {
+      folder = new File(Commons.getAppDataPath(), FOLDER);
+      if (!folder.exists() && !folder.mkdirs()) {
+        log(-1, "not possible: %s", folder);
+      }
+    }
+    return folder;
+  }
+
+  /**
+   * get the compiled code of the source - compiled now, if not yet in the cache
+   *
+   * @param source a .py file
+   * @return the code or null if the source cannot be read
+   */
+  public static PyCode get(File source) {
+    byte[] text;
+    try {
+      text = Files.readAllBytes(source.toPath());
+    } catch (IOException e) {
+      log(-1, "%s: %s", source, e.getMessage());
+      return null;
+    }
+    String path = source.getAbsolutePath();
+    String name = FilenameUtils.getBaseName(path).replaceAll("[^a-zA-Z0-9_]", "_");
+    File entry = new File(getFolder(), key(path, text) + EXTENSION);
+    byte[] code = null;
+    if (entry.exists()) {
+      try {
+        code = Files.readAllBytes(entry.toPath());
+        entry.setLastModified(System.currentTimeMillis());
+        log(lvl + 1, "used: %s (%s)", path, entry.getName());
+      } catch (IOException e) {
+        code = null;
+      }
+    }
+    if (code == null) {
+      long start = System.currentTimeMillis();
+      code = imp.compileSource(name, new ByteArrayInputStream(text), path);
+      log(lvl, "compiled: %s (%d msec)", path, System.currentTimeMillis() - start);
+      store(entry, code);
+    }
+    return BytecodeLoader.makeCode(name + "$py", code, path);
+  }
+
+  private static String key(String path, byte[] text) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(PySystemState.version.toString().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(path.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(text);
+      StringBuilder key = new StringBuilder();
+      for (byte b : digest.digest()) {
+        key.append(String.format("%02x", b));
+      }
+      return key.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void store(File entry, byte[] code) {
+    File temp = new File(entry.getParentFile(), entry.getName() + "." + ProcessHandle.current().pid() + ".tmp");
+    try {
+      Files.write(temp.toPath(), code);
+      Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log(-1, "not stored: %s (%s)", entry, e.getMessage());
+      temp.delete();
+      return;
+    }
+    prune();
+  }
+
+  private static void prune() {
+    File[] entries = getFolder().listFiles((dir, name) -> name.endsWith(EXTENSION));
+    if (entries == null || entries.length <= MAX_ENTRIES) {
+      return;
+    }
+    Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+    for (int n = 0; n < entries.length - MAX_ENTRIES / 2; n++) {
+      entries[n].delete();
+    }
+    log(lvl, "pruned: %d entries", entries.length - MAX_ENTRIES / 2);
+  }
+
+  /**
+   * delete all entries
+   */
+  public static void clear() {
+    File[] entries = getFolder().listFiles();
+    if (entries != null) {
+      for (File entry : entries) {
+        entry.delete();
+      }
+    }
+  }
+}
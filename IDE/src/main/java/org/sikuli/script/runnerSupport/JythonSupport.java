@@ -19,12 +19,11 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 public class JythonSupport implements IRunnerSupport {
 
@@ -360,6 +359,13 @@ public class JythonSupport implements IRunnerSupport {
   }
 
   public void interpreterExecFile(String script) {
+    if (Settings.JythonCodeCache) {
+      PyCode pyCode = JythonCodeCache.get(new File(script));
+      if (pyCode != null) {
+        interpreter.exec(pyCode);
+        return;
+      }
+    }
     interpreter.execfile(script);
   }
 
@@ -701,15 +707,152 @@ public class JythonSupport implements IRunnerSupport {
       if (fModule == null) {
         return null;
       }
+    } else if (fModule.getName().endsWith(".py")) {
+      // not in sys.path: left to the default importer as before
+      return null;
     }
     log(lvl + 1, "findModule: final: %s [%s]", fModule.getName(), fModule.getParent());
     if (fModule.getName().endsWith(".sikuli")) {
       importedScripts.add(fModule);
       return fModule.getAbsolutePath();
     }
+    if (Settings.JythonCodeCache && nDot < 0) {
+      File fSource = findSysPathSource(modName);
+      if (fSource != null) {
+        return fSource.getAbsolutePath();
+      }
+    }
     return null;
   }
 
+  /**
+   * the .py file the default importer would load for a top level module (first match in sys.path order)
+   *
+   * @param modName the module name
+   * @return the file or null, if the default importer would take something else or it cannot be told
+   * (builtin module, package, compiled class, a jar or class path entry holding the module before)
+   */
+  private File findSysPathSource(String modName) {
+    if (PySystemState.builtin_module_names.__contains__(Py.newString(modName))) {
+      return null;
+    }
+    synchronized (sysPath) {
+      getSysPath();
+      for (String fpPath : sysPath) {
+        File folder = new File(fpPath.isEmpty() ? "." : fpPath);
+        if (!folder.isDirectory()) {
+          if (mightHoldModule(fpPath, modName)) {
+            return null;
+          }
+          continue;
+        }
+        if (new File(folder, modName).isDirectory() || new File(folder, modName + "$py.class").exists()) {
+          return null;
+        }
+        File fSource = new File(folder, modName + ".py");
+        if (fSource.isFile()) {
+          return fSource;
+        }
+      }
+    }
+    return null;
+  }
+
+  // sys.path entry (not a folder) -> the top level module names in it
+  private Map<String, Set<String>> sysPathArchives = new HashMap<>();
+
+  /**
+   * a sys.path entry, that is not a folder: a folder in a jar/zip (like .../jython-standalone.jar/Lib),
+   * the Java class path (__classpath__, __pyclasspath__/) or something not existing
+   *
+   * @param fpPath  the sys.path entry
+   * @param modName the module name
+   * @return false, if the importer cannot find the module there
+   */
+  private boolean mightHoldModule(String fpPath, String modName) {
+    if (fpPath.startsWith("__classpath__") || fpPath.startsWith("__pyclasspath__")) {
+      String prefix = fpPath.startsWith("__pyclasspath__") ? fpPath.substring("__pyclasspath__".length()) : "";
+      prefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+      prefix = prefix.startsWith("/") ? prefix.substring(1) : prefix;
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      if (loader == null) {
+        loader = JythonSupport.class.getClassLoader();
+      }
+      return loader.getResource(prefix + modName + ".py") != null
+          || loader.getResource(prefix + modName + "$py.class") != null
+          || loader.getResource(prefix + modName + "/__init__.py") != null
+          || loader.getResource(prefix + modName + "/__init__$py.class") != null
+          || (prefix.isEmpty() && (loader.getResource(modName + ".class") != null
+          || loader.getResource(modName + "/") != null));
+    }
+    Set<String> names = sysPathArchives.get(fpPath);
+    if (names == null) {
+      names = listArchive(fpPath);
+      if (names == null) {
+        return true;
+      }
+      sysPathArchives.put(fpPath, names);
+    }
+    return names.contains(modName);
+  }
+
+  // null: cannot be told
+  private Set<String> listArchive(String fpPath) {
+    File archive = new File(fpPath);
+    String inner = "";
+    while (archive != null && !archive.exists()) {
+      inner = archive.getName() + (inner.isEmpty() ? "" : "/" + inner);
+      archive = archive.getParentFile();
+    }
+    Set<String> names = new HashSet<>();
+    if (archive == null || !archive.isFile()) {
+      return names; // not existing: nothing to import from there
+    }
+    String prefix = inner.isEmpty() ? "" : inner + "/";
+    try (ZipFile zip = new ZipFile(archive)) {
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        String entry = entries.nextElement().getName();
+        if (!entry.startsWith(prefix) || entry.length() == prefix.length()) {
+          continue;
+        }
+        String name = entry.substring(prefix.length());
+        int nSlash = name.indexOf("/");
+        if (nSlash > -1) {
+          name = name.substring(0, nSlash);
+        } else if (name.endsWith("$py.class")) {
+          name = name.substring(0, name.length() - "$py.class".length());
+        } else if (name.endsWith(".py")) {
+          name = name.substring(0, name.length() - ".py".length());
+        }
+        names.add(name);
+      }
+    } catch (IOException e) {
+      log(-1, "findSysPathSource: %s: %s", archive, e.getMessage());
+      return null;
+    }
+    return names;
+  }
+
+  /**
+   * load a module from its source using the compiled code cache (see JythonCodeCache)
+   *
+   * @param modName the module name
+   * @param modFile the module's .py file
+   * @return the module or null (source not readable or cache switched off)
+   */
+  public PyObject loadModuleCached(String modName, String modFile) {
+    if (!Settings.JythonCodeCache) {
+      return null;
+    }
+    PyCode pyCode = JythonCodeCache.get(new File(modFile));
+    if (pyCode == null) {
+      return null;
+    }
+    log(lvl, "loadModuleCached: %s (%s)", modName, modFile);
+    return imp.createFromCode(modName, pyCode, modFile);
+  }
+
   public String loadModulePrepare(String modName, String modPath) {
     log(lvl, "loadModulePrepare: %s in %s", modName, modPath);
     int nDot = modName.lastIndexOf(".");
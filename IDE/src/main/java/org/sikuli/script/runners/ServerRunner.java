@@ -13,18 +13,30 @@ import javax.script.ScriptEngine;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 
 /**
  * EXPERIMENTAL --- NOT official API<br>
  *   not as is in version 2
+ * <p>
+ * each client is handled in its own thread (max {@link #MAX_CLIENTS} at the same time)<br>
+ * HTTP clients sending "Connection: keep-alive" can send more requests on the same connection<br>
+ * START, RUN and EVAL are queued per runner type (JS/PY/RB, max {@link #MAX_QUEUED_COMMANDS} waiting),
+ * a full queue is answered with 503
  */
 public class ServerRunner extends AbstractScriptRunner {
 
@@ -48,10 +60,49 @@ public class ServerRunner extends AbstractScriptRunner {
   }
 
   private static ServerSocket server = null;
-  private static PrintWriter out = null;
-  private static Scanner in = null;
   private static boolean isHandling = false;
-  private static boolean shouldStop = false;
+  private static volatile boolean shouldStop = false;
+
+  public static final int MAX_CLIENTS = 32;
+  public static final int MAX_QUEUED_COMMANDS = 16;
+
+  private static ThreadPoolExecutor clients = null;
+  private static final Map<String, ThreadPoolExecutor> commandQueues = new HashMap<>();
+
+  private static ThreadFactory daemonThreads(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * one command at a time per runner type, others are waiting in a bounded queue
+   *
+   * @param runType the runner type
+   * @return the queue
+   */
+  private static synchronized ThreadPoolExecutor getCommandQueue(String runType) {
+    return commandQueues.computeIfAbsent(runType, type -> new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(MAX_QUEUED_COMMANDS), daemonThreads("ServerRunner-" + type)));
+  }
+
+  private static synchronized void stopCommandQueues() {
+    for (ThreadPoolExecutor queue : commandQueues.values()) {
+      queue.shutdown();
+    }
+    commandQueues.clear();
+  }
+
+  private static void stopServer() {
+    shouldStop = true;
+    try {
+      server.close();
+    } catch (IOException ex) {
+    }
+  }
 
 //TODO set loglevel at runtime
   private static int logLevel = 0;
@@ -122,28 +173,33 @@ public class ServerRunner extends AbstractScriptRunner {
           }
         }
       });
-      while (true) {
-        dolog("now waiting on port: %d at %s", port, theIP);
-        Socket socket = server.accept();
-        out = new PrintWriter(socket.getOutputStream());
-        in = new Scanner(socket.getInputStream());
-        HandleClient client = new HandleClient(socket);
-        isHandling = true;
-        while (true) {
-          if (socket.isClosed()) {
-            shouldStop = client.getShouldStop();
-            break;
-          }
-          try {
-            Thread.sleep(1000);
-          } catch (InterruptedException ex) {
-          }
+      clients = new ThreadPoolExecutor(0, MAX_CLIENTS, 60, TimeUnit.SECONDS,
+          new SynchronousQueue<>(), daemonThreads("HandleClient"));
+      dolog("now waiting on port: %d at %s", port, theIP);
+      while (!shouldStop) {
+        Socket socket;
+        try {
+          socket = server.accept();
+        } catch (SocketException ex) {
+          break; // closed by STOP
         }
-        if (shouldStop) {
-          break;
+        isHandling = true;
+        try {
+          clients.execute(new HandleClient(socket));
+        } catch (RejectedExecutionException ex) {
+          dolog(-1, "too many clients (max %d) - rejected: %s", MAX_CLIENTS, socket);
+          socket.close();
+        } catch (IOException ex) {
+          dolog(-1, "communication not established: %s", ex.getMessage());
+          socket.close();
         }
       }
     } catch (Exception e) {
+    } finally {
+      if (clients != null) {
+        clients.shutdown();
+      }
+      stopCommandQueues();
     }
     if (!isHandling) {
       dolog(-1, "start handling not possible: " + port);
@@ -173,39 +229,34 @@ public class ServerRunner extends AbstractScriptRunner {
   }
 
   static ScriptEngine jsRunner = null;
-	static File scriptFolder = null;
-	static String scriptFolderNet = null;
-	static File imageFolder = null;
-	static String imageFolderNet = null;
+
+  // bundle path and image path are global: scripts using them run one at a time (all runner types)
+  private static final Object imagePathLock = new Object();
 
   private static class HandleClient implements Runnable {
 
+    // set by SCRIPTS and IMAGES for this client only
+    File scriptFolder = null;
+    String scriptFolderNet = null;
+    File imageFolder = null;
+    String imageFolderNet = null;
+
     private volatile boolean keepRunning;
     private boolean shouldKeep = false;
-    Thread thread;
     Socket socket;
-    Boolean shouldStop = false;
+    PrintWriter out;
+    Scanner in;
 
-    public HandleClient(Socket sock) {
-      init(sock);
-    }
-
-    private void init(Socket sock) {
+    public HandleClient(Socket sock) throws IOException {
       socket = sock;
-      if (in == null || out == null) {
-        ServerRunner.dolog(-1, "communication not established");
-        System.exit(1);
-      }
-      thread = new Thread(this, "HandleClient");
+      out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+      in = new Scanner(socket.getInputStream(), StandardCharsets.UTF_8);
       keepRunning = true;
-      thread.start();
-    }
-
-    public boolean getShouldStop() {
-      return shouldStop;
     }
 
     boolean isHTTP = false;
+    boolean keepAlive = false;
+    long requestStart = 0;
     String request;
     String rCommand;
     String rRessource;
@@ -231,19 +282,31 @@ public class ServerRunner extends AbstractScriptRunner {
       ServerRunner.dolog("now handling client: " + socket);
       while (keepRunning) {
         try {
+          if (!in.hasNextLine()) {
+            shouldKeep = false;
+            stopRunning();
+            break;
+          }
           String inLine = in.nextLine();
           if (inLine != null) {
             if (!isHTTP) {
               ServerRunner.dolog("processing: <%s>", inLine);
+              requestStart = System.nanoTime();
             }
 						boolean success = true;
+            boolean stopServer = false;
             if (inLine.startsWith("GET /") && inLine.contains("HTTP/")) {
               isHTTP = true;
+              keepAlive = false;
 							request = inLine;
+              requestStart = System.nanoTime();
               continue;
             }
             if (isHTTP) {
               if (!inLine.isEmpty()) {
+                if (inLine.toLowerCase().replace(" ", "").equals("connection:keep-alive")) {
+                  keepAlive = true;
+                }
                 continue;
               }
             }
@@ -255,11 +318,13 @@ public class ServerRunner extends AbstractScriptRunner {
               // STOP
               if (rCommand.contains("STOP")) {
                 rMessage = "stopping server";
-                shouldStop = true;
+                stopServer = true;
                 shouldKeep = false;
+                keepAlive = false;
               } else if (rCommand.contains("EXIT")) {
                 rMessage = "stopping client";
                 shouldKeep = false;
+                keepAlive = false;
               // START
               } else if (rCommand.startsWith("START")) {
                 runType = runTypeJS;
@@ -270,9 +335,9 @@ public class ServerRunner extends AbstractScriptRunner {
                     runType = runTypeRB;
                   }
                 }
-                success = startRunner(runType, null, null);
+                success = runQueued(runType, () -> startRunner(runType, null, null));
                 rMessage = "startRunner for: " + runType;
-                if (!success) {
+                if (!success && rStatus.equals(rStatusOK)) {
                   rMessage = "startRunner: not possible for: " + runType;
                   rStatus = rStatusServiceNotAvail;
                 }
@@ -311,6 +376,7 @@ public class ServerRunner extends AbstractScriptRunner {
                     rMessage = "imageFolder now: " + imageFolderNet;
                     asImagePath = imageFolderNet;
                   } else {
+                    imageFolderNet = null;
                     String fpGiven = imageFolder.getAbsolutePath();
                     if (!imageFolder.exists()) {
                       imageFolder = new File(imageFolder.getAbsolutePath() + ".sikuli");
@@ -323,7 +389,9 @@ public class ServerRunner extends AbstractScriptRunner {
                     asImagePath = imageFolder.getAbsolutePath();
                   }
                   rMessage = "imageFolder now: " + asImagePath;
-                  ImagePath.add(asImagePath);
+                  if (!success) {
+                    imageFolder = null;
+                  }
                 }
                 // RUN
               } else if (rCommand.startsWith("RUN")) {
@@ -336,8 +404,8 @@ public class ServerRunner extends AbstractScriptRunner {
                   success = false;
                 }
                 if (success) {
-                  Debug.log("Using script folder: " + ServerRunner.scriptFolder);
-                  fScript = new File(ServerRunner.scriptFolder, script);
+                  Debug.log("Using script folder: " + scriptFolder);
+                  fScript = new File(scriptFolder, script);
                   if (!fScript.exists()) {
                     if (script.endsWith(".sikuli")) {
                       script = script.replace(".sikuli", "");
@@ -362,7 +430,6 @@ public class ServerRunner extends AbstractScriptRunner {
                   }
                 }
                 if (success) {
-                  ImagePath.setBundlePath(fScript.getAbsolutePath());
                   List<String> args = new ArrayList<String>();
 
                   if (this.rQuery != null && this.rQuery.length() > 0) {
@@ -380,20 +447,26 @@ public class ServerRunner extends AbstractScriptRunner {
                     }
                   }
 
-                  success = this.startRunner(this.runType, fScript, fScriptScript, args.toArray(new String[0]));
+                  File fScriptRun = fScript;
+                  File fScriptScriptRun = fScriptScript;
+                  String runTypeRun = runType;
+                  success = runQueued(runType, withImagePath(fScriptRun, () -> this.startRunner(runTypeRun,
+                      fScriptRun, fScriptScriptRun, args.toArray(new String[0]))));
                 }
               } else if (rCommand.startsWith("EVAL")) {
                 if (jsRunner != null) {
                   String line = rQuery;
-                  try {
-                    evalReturnObject = jsRunner.eval(line);
-                    rMessage = "runStatement: returned: "
-                            + (evalReturnObject == null ? "null" : evalReturnObject.toString());
-                    success = true;
-                  } catch (Exception ex) {
-                    rMessage = "runStatement: raised exception on eval: " + ex.toString();
-                    success = false;
-                  }
+                  success = runQueued(runTypeJS, withImagePath(null, () -> {
+                    try {
+                      evalReturnObject = jsRunner.eval(line);
+                      rMessage = "runStatement: returned: "
+                          + (evalReturnObject == null ? "null" : evalReturnObject.toString());
+                      return true;
+                    } catch (Exception ex) {
+                      rMessage = "runStatement: raised exception on eval: " + ex.toString();
+                      return false;
+                    }
+                  }));
                 } else {
                   rMessage = "runStatement: not possible --- no runner";
                   rStatus = rStatusServiceNotAvail;
@@ -402,21 +475,37 @@ public class ServerRunner extends AbstractScriptRunner {
               }
             }
             String retVal = "";
+            long latency = (System.nanoTime() - requestStart) / 1000000;
             if (isHTTP) {
               retVal = "HTTP/1.1 " + rStatus;
               String state = (success ? "PASS " : "FAIL ") + rStatus.substring(0,3) + " ";
-              retVal += "\r\n\r\n" + state + rMessage + "\r";
+              if (keepAlive) {
+                String body = state + rMessage + "\r" + System.lineSeparator();
+                retVal += "\r\nContent-Length: " + body.getBytes(StandardCharsets.UTF_8).length
+                    + "\r\nConnection: keep-alive"
+                    + "\r\nX-SikuliX-Latency: " + latency
+                    + "\r\n\r\n" + body;
+              } else {
+                retVal += "\r\nX-SikuliX-Latency: " + latency;
+                retVal += "\r\n\r\n" + state + rMessage + "\r" + System.lineSeparator();
+              }
             } else {
-              retVal = (success ? "isok:\n" : "fail:\n") + rMessage + "\n###+++###";
+              retVal = (success ? "isok:\n" : "fail:\n") + rMessage + "\n###+++###" + System.lineSeparator();
             }
             try {
-              out.println(retVal);
+              out.print(retVal);
               out.flush();
-              ServerRunner.dolog("returned:\n"  + retVal.replace("###+++###", ""));
+              ServerRunner.dolog("returned (%d msec):\n%s", latency, retVal.replace("###+++###", ""));
             } catch (Exception ex) {
               ServerRunner.dolog(-1, "write response: Exception:\n" + ex.getMessage());
             }
-            stopRunning();
+            isHTTP = false;
+            if (!keepAlive) {
+              stopRunning();
+            }
+            if (stopServer) {
+              ServerRunner.stopServer();
+            }
           }
         } catch (Exception ex) {
           ServerRunner.dolog(-1, "while processing: Exception:\n" + ex.getMessage());
@@ -424,12 +513,62 @@ public class ServerRunner extends AbstractScriptRunner {
           stopRunning();
         }
       }
+    }
+
+    /**
+     * queue the command for the runner type and wait for its result
+     *
+     * @param type    runner type
+     * @param command returns the success state
+     * @return the success state of the command (false if not queued)
+     */
+    private boolean runQueued(String type, Callable<Boolean> command) {
+      Future<Boolean> result;
       try {
-        Thread.sleep(100);
+        result = getCommandQueue(type).submit(command);
+      } catch (RejectedExecutionException ex) {
+        rMessage = String.format("too many commands waiting for %s (max %d)", type, MAX_QUEUED_COMMANDS);
+        rStatus = rStatusServiceNotAvail;
+        return false;
+      }
+      try {
+        return result.get();
       } catch (InterruptedException ex) {
-        shouldKeep = false;
-        stopRunning();
+        rMessage = "command interrupted: " + type;
+        rStatus = rStatusServiceNotAvail;
+      } catch (ExecutionException ex) {
+        rMessage = "command failed: " + ex.getCause();
+        rStatus = rStatusServerError;
       }
+      return false;
+    }
+
+    /**
+     * the client's bundle path and image folder are only set, when the queued command is run
+     * (commands of other clients might be waiting or running)
+     *
+     * @param bundle  the bundle path (null: not changed)
+     * @param command the command using the image path
+     * @return the command to be queued
+     */
+    private Callable<Boolean> withImagePath(File bundle, Callable<Boolean> command) {
+      String images = imageFolderNet != null ? imageFolderNet
+          : (imageFolder != null ? imageFolder.getAbsolutePath() : null);
+      return () -> {
+        synchronized (imagePathLock) {
+          if (bundle != null) {
+            ImagePath.setBundlePath(bundle.getAbsolutePath());
+          }
+          boolean added = images != null && !ImagePath.has(images) && ImagePath.add(images);
+          try {
+            return command.call();
+          } finally {
+            if (added) {
+              ImagePath.remove(images);
+            }
+          }
+        }
+      };
     }
 
     public void stopRunning() {
@@ -26,6 +26,10 @@ class SikuliImporter:
                 raise etype, evalue, etb
               
             try:
+                if desc[2] == imp.PY_SOURCE:
+                    module = JH.get().loadModuleCached(fullname, pathname)
+                    if module is not None:
+                        return module
                 return imp.load_module(fullname, file, pathname, desc)
             except:
                 etype, evalue, etb = sys.exc_info()
@@ -39,6 +43,27 @@ class SikuliImporter:
             module_name = JH.get().loadModulePrepare(module_name, self.path)
             return self._load_module(module_name)
 
+    class CachedLoader:
+        def __init__(self, path):
+            self.path = path
+
+        def load_module(self, module_name):
+            try:
+                module = JH.get().loadModuleCached(module_name, self.path)
+                if module is not None:
+                    return module
+                # not cached (source not readable, cache switched off): the normal way
+                (file, pathname, desc) = imp.find_module(module_name, [os.path.dirname(self.path)])
+                try:
+                    return imp.load_module(module_name, file, pathname, desc)
+                finally:
+                    if file:
+                        file.close()
+            except:
+                etype, evalue, etb = sys.exc_info()
+                evalue = etype("!!WHILE IMPORTING!! %s" % evalue)
+                raise etype, evalue, etb
+
     def _find_module(self, module_name, fullpath):
         fullpath = fullpath + "/" + module_name + ".sikuli"
         if os.path.exists(fullpath):
@@ -49,6 +74,8 @@ class SikuliImporter:
         module_path = JH.get().findModule(module_name, package_path, sys.path)
         if not module_path: 
           return None
+        elif module_path.endswith(".py"):
+          return self.CachedLoader(module_path)
         else: 
           return self.SikuliLoader(module_path)
 
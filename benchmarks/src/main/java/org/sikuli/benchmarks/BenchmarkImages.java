@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.benchmarks;
+
+import org.sikuli.script.ImageAsScreen;
+import org.sikuli.script.Region;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * the screenshots and targets the benchmarks run against
+ * <p>
+ * If the system property sikulix.benchmarks.images names a folder, the images are loaded from there
+ * (screen.png, screen2.png (changed screen), target.png, text.png), otherwise they are generated
+ * (same content on every run).
+ */
+public class BenchmarkImages {
+
+  public static final String IMAGES = "sikulix.benchmarks.images";
+
+  static final int SCREEN_W = 1920;
+  static final int SCREEN_H = 1080;
+  static final Rectangle TARGET = new Rectangle(1210, 640, 64, 48);
+  static final Rectangle PLAIN = new Rectangle(300, 860, 60, 40);
+  static final Rectangle CHANGED = new Rectangle(900, 300, 120, 80);
+
+  private static BufferedImage screen = null;
+
+  public static synchronized BufferedImage screen() {
+    if (screen == null) {
+      screen = load("screen.png");
+      if (screen == null) {
+        screen = generateScreen();
+      }
+    }
+    return screen;
+  }
+
+  public static BufferedImage changedScreen() {
+    BufferedImage changed = load("screen2.png");
+    if (changed == null) {
+      changed = copy(screen(), BufferedImage.TYPE_3BYTE_BGR);
+      Graphics2D g = changed.createGraphics();
+      g.setColor(Color.ORANGE);
+      g.fill(CHANGED);
+      g.setColor(Color.BLACK);
+      g.drawString("changed", CHANGED.x + 10, CHANGED.y + 30);
+      g.dispose();
+    }
+    return changed;
+  }
+
+  public static BufferedImage target() {
+    BufferedImage target = load("target.png");
+    if (target == null) {
+      target = sub(screen(), TARGET);
+    }
+    return target;
+  }
+
+  public static BufferedImage grayTarget() {
+    return copy(target(), BufferedImage.TYPE_BYTE_GRAY);
+  }
+
+  /**
+   * the target with transparent corners (the Finder then matches with a mask)
+   *
+   * @return the image with an alpha channel
+   */
+  public static BufferedImage maskedTarget() {
+    BufferedImage masked = copy(target(), BufferedImage.TYPE_4BYTE_ABGR);
+    int cornerW = masked.getWidth() / 4;
+    int cornerH = masked.getHeight() / 4;
+    for (int y = 0; y < masked.getHeight(); y++) {
+      for (int x = 0; x < masked.getWidth(); x++) {
+        boolean left = x < cornerW;
+        boolean right = x >= masked.getWidth() - cornerW;
+        boolean top = y < cornerH;
+        boolean bottom = y >= masked.getHeight() - cornerH;
+        if ((left || right) && (top || bottom)) {
+          masked.setRGB(x, y, 0);
+        }
+      }
+    }
+    return masked;
+  }
+
+  public static BufferedImage plainTarget() {
+    return sub(screen(), PLAIN);
+  }
+
+  public static BufferedImage text() {
+    BufferedImage text = load("text.png");
+    if (text == null) {
+      text = new BufferedImage(800, 240, BufferedImage.TYPE_3BYTE_BGR);
+      Graphics2D g = text.createGraphics();
+      g.setColor(Color.WHITE);
+      g.fillRect(0, 0, text.getWidth(), text.getHeight());
+      g.setColor(Color.BLACK);
+      g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+      g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
+      String[] lines = new String[]{
+          "File Edit View Navigate Code Refactor Build Run",
+          "The quick brown fox jumps over the lazy dog",
+          "SikuliX automates anything you see on the screen",
+          "Settings OK Cancel Apply Help 0123456789"};
+      for (int n = 0; n < lines.length; n++) {
+        g.drawString(lines[n], 20, 45 + n * 50);
+      }
+      g.dispose();
+    }
+    return text;
+  }
+
+  /**
+   * a region on a fake screen showing the given image (no real screen needed)
+   *
+   * @param image the screen content
+   * @return the region covering the whole image
+   */
+  public static Region region(BufferedImage image) {
+    ImageAsScreen imageScreen = new ImageAsScreen();
+    imageScreen.setImage(image);
+    imageScreen.setDimension(new Dimension(image.getWidth(), image.getHeight()));
+    return Region.create(0, 0, image.getWidth(), image.getHeight(), imageScreen);
+  }
+
+  public static BufferedImage copy(BufferedImage image, int type) {
+    BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), type);
+    Graphics2D g = copy.createGraphics();
+    g.drawImage(image, 0, 0, null);
+    g.dispose();
+    return copy;
+  }
+
+  private static BufferedImage sub(BufferedImage image, Rectangle rect) {
+    return copy(image.getSubimage(rect.x, rect.y, rect.width, rect.height), BufferedImage.TYPE_3BYTE_BGR);
+  }
+
+  private static BufferedImage load(String name) {
+    String folder = System.getProperty(IMAGES);
+    if (folder == null) {
+      return null;
+    }
+    File file = new File(folder, name);
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      return ImageIO.read(file);
+    } catch (IOException e) {
+      throw new IllegalStateException("BenchmarkImages: not readable: " + file, e);
+    }
+  }
+
+  private static BufferedImage generateScreen() {
+    BufferedImage image = new BufferedImage(SCREEN_W, SCREEN_H, BufferedImage.TYPE_3BYTE_BGR);
+    Random random = new Random(4711);
+    Graphics2D g = image.createGraphics();
+    g.setColor(new Color(236, 236, 236));
+    g.fillRect(0, 0, SCREEN_W, SCREEN_H);
+    for (int n = 0; n < 600; n++) {
+      g.setColor(new Color(random.nextInt(0xFFFFFF)));
+      g.fillRect(random.nextInt(SCREEN_W), random.nextInt(SCREEN_H), 8 + random.nextInt(120), 8 + random.nextInt(60));
+    }
+    g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+    for (int n = 0; n < 120; n++) {
+      g.setColor(new Color(random.nextInt(0x808080)));
+      g.drawString("Label " + n, random.nextInt(SCREEN_W - 60), 14 + random.nextInt(SCREEN_H - 14));
+    }
+    g.setColor(new Color(40, 90, 200));
+    g.fill(PLAIN);
+    g.dispose();
+    return image;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.sikuli.script.Finder;
+import org.sikuli.script.Region;
+import org.sikuli.script.ScreenImage;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * change detection between two screenshots (as used by observe onChange)
+ * <p>
+ * the changes are returned as regions on the fake screen showing the first screenshot (runs headless)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChangesBenchmark {
+
+  private Finder previous;
+  private ScreenImage next;
+
+  @Setup
+  public void setup() {
+    previous = new Finder(BenchmarkImages.region(BenchmarkImages.screen()));
+    BufferedImage changed = BenchmarkImages.changedScreen();
+    next = new ScreenImage(new Rectangle(0, 0, changed.getWidth(), changed.getHeight()), changed);
+  }
+
+  @Benchmark
+  public List<Region> findChanges() {
+    return previous.findChanges(next);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.sikuli.script.Finder;
+import org.sikuli.script.Image;
+import org.sikuli.script.Match;
+import org.sikuli.script.Region;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Region.findAny with several targets in a region on a stored screenshot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FindAnyBenchmark {
+
+  @Param({"4", "12"})
+  public int targets;
+
+  private Region region;
+  private Object[] images;
+
+  @Setup
+  public void setup() {
+    BufferedImage screen = BenchmarkImages.screen();
+    region = BenchmarkImages.region(screen);
+    Image screenImage = new Image(screen);
+    List<Image> found = new ArrayList<>();
+    int w = 48;
+    int h = 32;
+    for (int n = 0; found.size() < targets; n++) {
+      if (n > 100 * targets) {
+        throw new IllegalStateException("FindAnyBenchmark: not enough unique targets on the screen");
+      }
+      int x = 40 + (n * 157) % (screen.getWidth() - w - 80);
+      int y = 40 + (n * 89) % (screen.getHeight() - h - 80);
+      Rectangle rect = new Rectangle(x, y, w, h);
+      Image target = new Image(BenchmarkImages.copy(screen.getSubimage(rect.x, rect.y, rect.width, rect.height),
+          BufferedImage.TYPE_3BYTE_BGR));
+      // only targets, that are unique on the screen
+      Finder finder = new Finder(screenImage);
+      finder.findAll(target);
+      int count = 0;
+      while (finder.hasNext() && count < 2) {
+        finder.next();
+        count++;
+      }
+      if (count == 1) {
+        found.add(target);
+      }
+    }
+    images = found.toArray();
+  }
+
+  @Benchmark
+  public List<Match> findAny() {
+    return region.findAny(images);
+  }
+}
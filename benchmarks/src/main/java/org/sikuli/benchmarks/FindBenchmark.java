@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.sikuli.script.Finder;
+import org.sikuli.script.Image;
+import org.sikuli.script.Match;
+import org.sikuli.script.Pattern;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finder.find/findAll on a stored screenshot for the different matching paths
+ * (color, gray, with mask, plain color)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FindBenchmark {
+
+  @Param({"color", "gray", "mask", "plain"})
+  public String variant;
+
+  private Image screen;
+  private Pattern pattern;
+
+  @Setup
+  public void setup() {
+    BufferedImage base = BenchmarkImages.screen();
+    BufferedImage target;
+    switch (variant) {
+      case "gray":
+        base = BenchmarkImages.copy(base, BufferedImage.TYPE_BYTE_GRAY);
+        target = BenchmarkImages.grayTarget();
+        break;
+      case "mask":
+        target = BenchmarkImages.maskedTarget();
+        break;
+      case "plain":
+        target = BenchmarkImages.plainTarget();
+        break;
+      default:
+        target = BenchmarkImages.target();
+    }
+    screen = new Image(base);
+    pattern = new Pattern(new Image(target));
+    Finder finder = new Finder(screen);
+    finder.find(pattern);
+    if (!finder.hasNext()) {
+      throw new IllegalStateException("FindBenchmark: target not found: " + variant);
+    }
+  }
+
+  @Benchmark
+  public Match find() {
+    Finder finder = new Finder(screen);
+    finder.find(pattern);
+    return finder.hasNext() ? finder.next() : null;
+  }
+
+  @Benchmark
+  public int findAll() {
+    Finder finder = new Finder(screen);
+    finder.findAll(pattern);
+    int count = 0;
+    while (finder.hasNext()) {
+      finder.next();
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.benchmarks;
+
+import org.opencv.core.Mat;
+import org.openjdk.jmh.annotations.*;
+import org.sikuli.script.Image;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * conversion of a screenshot between BufferedImage and OpenCV Mat
+ * (done for every capture and every target)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImageBenchmark {
+
+  @Param({"INT_RGB", "3BYTE_BGR", "4BYTE_ABGR"})
+  public String type;
+
+  private BufferedImage screen;
+  private Mat mat;
+
+  @Setup
+  public void setup() {
+    int imageType;
+    switch (type) {
+      case "INT_RGB":
+        imageType = BufferedImage.TYPE_INT_RGB;
+        break;
+      case "4BYTE_ABGR":
+        imageType = BufferedImage.TYPE_4BYTE_ABGR;
+        break;
+      default:
+        imageType = BufferedImage.TYPE_3BYTE_BGR;
+    }
+    screen = BenchmarkImages.copy(BenchmarkImages.screen(), imageType);
+    mat = Image.makeMat(screen);
+  }
+
+  @Benchmark
+  public Mat makeMat() {
+    return Image.makeMat(screen);
+  }
+
+  @Benchmark
+  public BufferedImage getBufferedImage() {
+    return Image.getBufferedImage(mat);
+  }
+}
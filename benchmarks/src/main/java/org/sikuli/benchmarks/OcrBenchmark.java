@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2010-2022, sikuli.org, sikulix.com - MIT license
+ */
+package org.sikuli.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.sikuli.script.Match;
+import org.sikuli.script.OCR;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * text recognition (needs a working Tesseract setup)
+ * <p>
+ * cached = false: the image is changed in one pixel before each read,
+ * so the OCR result cache does not hide the Tesseract time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OcrBenchmark {
+
+  @Param({"false", "true"})
+  public boolean cached;
+
+  private BufferedImage text;
+  private int round = 0;
+
+  @Setup
+  public void setup() {
+    text = BenchmarkImages.text();
+    if (OCR.readLines(text).isEmpty()) {
+      throw new IllegalStateException("OcrBenchmark: no text found - Tesseract not working?");
+    }
+  }
+
+  private BufferedImage nextImage() {
+    if (!cached) {
+      round++;
+      text.setRGB(text.getWidth() - 1, text.getHeight() - 1, 0xFFFFFF - (round & 1));
+    }
+    return text;
+  }
+
+  @Benchmark
+  public List<Match> readLines() {
+    return OCR.readLines(nextImage());
+  }
+
+  @Benchmark
+  public List<Match> readWords() {
+    return OCR.readWords(nextImage());
+  }
+}